@@ -0,0 +1,39 @@
+package com.example.demo;
+
+import org.jsoup.Jsoup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The Portuguese news pages under {@code src/test/resources/fixtures}, from a short article (2 KB) to a full
+ * daily summary (170 KB), as HTML or as the text of the whole document.
+ */
+public final class Fixtures {
+
+    public static final String SHORT = "noticia-curta.html";
+    public static final String MEDIUM = "noticia-media.html";
+    public static final String LONG = "resumo-do-dia.html";
+
+    public static final String BASE_URI = "https://exemplo.com.br/";
+
+    private Fixtures() {
+    }
+
+    public static String text(String fixture) {
+        return Jsoup.parse(html(fixture), BASE_URI).text();
+    }
+
+    public static String html(String fixture) {
+        try (InputStream html = Fixtures.class.getResourceAsStream("/fixtures/" + fixture)) {
+            if (html == null) {
+                throw new IllegalArgumentException("No such fixture: " + fixture);
+            }
+            return new String(html.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
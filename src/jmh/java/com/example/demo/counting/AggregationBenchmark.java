@@ -0,0 +1,94 @@
+package com.example.demo.counting;
+
+import com.example.demo.Fixtures;
+import com.example.demo.service.TextTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging already counted pages into one crawl's accumulator from 1, 4 and all available threads, the way
+ * page tasks do, for each accumulator the engine can pick. Pages are counted once up front, so only merging
+ * is measured; each operation merges one page.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AggregationBenchmark {
+
+    private static final List<Integer> ORDERS = List.of(1, 2, 3);
+
+    @State(Scope.Benchmark)
+    public static class Crawl {
+
+        @Param({"exact", "incremental", "approximate"})
+        public String accumulator;
+
+        private NGramAccumulator target;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            target = switch (accumulator) {
+                case "exact" -> new NGramAggregator(ORDERS, Runtime.getRuntime().availableProcessors());
+                case "incremental" -> new IncrementalAggregator(ORDERS, 20);
+                case "approximate" -> new HeavyHittersAggregator(ORDERS, 10_000);
+                default -> throw new IllegalArgumentException(accumulator);
+            };
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Pages {
+
+        private final NGramCounts[] pages = new NGramCounts[3];
+        private int next;
+
+        @Setup
+        public void setUp() {
+            String[] fixtures = {Fixtures.SHORT, Fixtures.MEDIUM, Fixtures.LONG};
+            for (int i = 0; i < fixtures.length; i++) {
+                pages[i] = new NGramCounts(ORDERS);
+                TextTokenizer.tokenize(Fixtures.text(fixtures[i]), pages[i]);
+            }
+        }
+
+        private NGramCounts next() {
+            NGramCounts page = pages[next];
+            next = (next + 1) % pages.length;
+            return page;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void mergeSingleThread(Crawl crawl, Pages pages) {
+        crawl.target.add(pages.next());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void mergeFourThreads(Crawl crawl, Pages pages) {
+        crawl.target.add(pages.next());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void mergeAllThreads(Crawl crawl, Pages pages) {
+        crawl.target.add(pages.next());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.counting;
+
+import com.example.demo.Fixtures;
+import com.example.demo.service.TextTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting one page's n-grams and selecting its top 20, per order: the work behind the unigram, bigram and
+ * trigram endpoints for each fixture page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NGramCountsBenchmark {
+
+    @Param({Fixtures.SHORT, Fixtures.MEDIUM, Fixtures.LONG})
+    public String fixture;
+
+    @Param({"1", "2", "3"})
+    public int order;
+
+    private String text;
+    private List<Integer> orders;
+    private NGramCounts counts;
+    private HeavyHittersAggregator heavyHitters;
+
+    @Setup
+    public void setUp() {
+        text = Fixtures.text(fixture);
+        orders = List.of(order);
+        counts = count(orders);
+        heavyHitters = new HeavyHittersAggregator(orders, 10_000);
+        heavyHitters.add(counts);
+    }
+
+    @Benchmark
+    public NGramCounts extract() {
+        return count(orders);
+    }
+
+    /**
+     * Counting all three orders from one pass, as a request for {@code n=1,2,3} does.
+     */
+    @Benchmark
+    public NGramCounts extractAllOrders() {
+        return count(List.of(1, 2, 3));
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Integer>> top() {
+        return counts.top(order, 20);
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Integer>> topApproximate() {
+        return heavyHitters.top(order, 20);
+    }
+
+    private NGramCounts count(List<Integer> countedOrders) {
+        NGramCounts pageCounts = new NGramCounts(countedOrders);
+        TextTokenizer.tokenize(text, pageCounts);
+        return pageCounts;
+    }
+}
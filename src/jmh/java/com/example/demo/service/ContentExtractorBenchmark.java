@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import com.example.demo.Fixtures;
+import com.example.demo.config.ContentProperties;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picking the text of a parsed page: {@link ContentExtractor} in main-content mode against
+ * {@link Document#text()} of the whole page, as every page was read before, on each fixture page. The
+ * {@code parseAnd*} benchmarks include parsing the HTML.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ContentExtractorBenchmark {
+
+    @Param({Fixtures.SHORT, Fixtures.MEDIUM, Fixtures.LONG})
+    public String fixture;
+
+    private String html;
+    private Document document;
+    private ContentExtractor extractor;
+
+    @Setup
+    public void setUp() {
+        html = Fixtures.html(fixture);
+        document = Jsoup.parse(html, Fixtures.BASE_URI);
+        extractor = new ContentExtractor(new ContentProperties());
+    }
+
+    @Benchmark
+    public String mainContent() {
+        return extractor.text(document);
+    }
+
+    /**
+     * The main content fed straight to the tokenizer, as the offline corpus mode reads it.
+     */
+    @Benchmark
+    public void mainContentTokens(Blackhole blackhole) {
+        extractor.tokenize(document, (chars, length, term) -> blackhole.consume(term));
+    }
+
+    @Benchmark
+    public String documentTextBaseline() {
+        return document.text();
+    }
+
+    @Benchmark
+    public String parseAndMainContent() {
+        return extractor.text(Jsoup.parse(html, Fixtures.BASE_URI));
+    }
+
+    @Benchmark
+    public String parseAndDocumentTextBaseline() {
+        return Jsoup.parse(html, Fixtures.BASE_URI).text();
+    }
+}
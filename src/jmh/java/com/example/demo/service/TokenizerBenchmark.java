@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text cleaning and term checks: {@link TextTokenizer} against the regex pipeline it replaced
+ * ({@link TextTokenizerTest.RegexTokenizer}), on each fixture page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TokenizerBenchmark {
+
+    @Param({Fixtures.SHORT, Fixtures.MEDIUM, Fixtures.LONG})
+    public String fixture;
+
+    private String text;
+    private char[][] words;
+    private List<String> lowerCaseWords;
+
+    @Setup
+    public void setUp() {
+        text = Fixtures.text(fixture);
+        List<char[]> tokens = new ArrayList<>();
+        lowerCaseWords = new ArrayList<>();
+        TextTokenizer.tokenize(text, (chars, length, term) -> {
+            tokens.add(Arrays.copyOf(chars, length));
+            lowerCaseWords.add(new String(chars, 0, length));
+        });
+        words = tokens.toArray(new char[0][]);
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) {
+        TextTokenizer.tokenize(text, (chars, length, term) -> blackhole.consume(term));
+    }
+
+    @Benchmark
+    public List<String> tokenizeRegexBaseline() {
+        return TextTokenizerTest.RegexTokenizer.tokenize(text);
+    }
+
+    /**
+     * The stopword check on folded characters, as the tokenizer runs it on every candidate term.
+     */
+    @Benchmark
+    public int isStopword() {
+        char[] folded = new char[64];
+        int stopwords = 0;
+        for (char[] word : words) {
+            if (word.length > folded.length) continue;
+            for (int i = 0; i < word.length; i++) {
+                folded[i] = TextTokenizer.fold(word[i]);
+            }
+            if (Stopwords.contains(folded, word.length)) stopwords++;
+        }
+        return stopwords;
+    }
+
+    /**
+     * The same check through {@link Normalizer} and a regex, as the replaced pipeline ran it.
+     */
+    @Benchmark
+    public int isStopwordRegexBaseline() {
+        int stopwords = 0;
+        for (String word : lowerCaseWords) {
+            String folded = Normalizer.normalize(word.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                    .replaceAll("\\p{M}", "");
+            if (Stopwords.contains(folded)) stopwords++;
+        }
+        return stopwords;
+    }
+}
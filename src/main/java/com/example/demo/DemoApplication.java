@@ -1,43 +1,56 @@
 package com.example.demo;
 
-import com.example.demo.service.UniGramExtractor;
-import com.example.demo.service.BiGramExtractor;
-import com.example.demo.service.TriGramExtractor;
-import org.springframework.boot.CommandLineRunner;
+import com.example.demo.corpus.CorpusService;
+import com.example.demo.model.CorpusReport;
+import com.example.demo.model.NGramQuery;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
 
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Starts the API. With {@code --corpus=<dir>} (optionally {@code --n=1,2} and {@code --approx}) it instead
+ * counts the n-grams of a local corpus, prints them and exits, without a web server or network access.
+ */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class DemoApplication {
 
+	private static final Map<Integer, String> ORDER_NAMES = Map.of(1, "Uni-gramas", 2, "Bi-gramas", 3, "Tri-gramas");
+
 	public static void main(String[] args) {
-		SpringApplication.run(DemoApplication.class, args);
+		SpringApplication application = new SpringApplication(DemoApplication.class);
+		if (Arrays.stream(args).anyMatch(arg -> arg.startsWith("--corpus="))) {
+			application.setWebApplicationType(WebApplicationType.NONE);
+		}
+		application.run(args);
 	}
 
 	@Bean
-	CommandLineRunner run(UniGramExtractor uniGramExtractor, BiGramExtractor biGramExtractor, TriGramExtractor triGramExtractor) {
+	ApplicationRunner corpusRunner(CorpusService corpusService) {
 		return args -> {
-			String url = "https://www.bbc.com/portuguese/articles/c5y3xy47jxzo";
-
-			System.out.println("Uni-gramas (Top 20):");
-			List<Map.Entry<String, Integer>> uniGrams = uniGramExtractor.extractNGramsFromMultiplePages(url);
-			uniGrams.forEach(entry -> System.out.println(entry.getKey() + " - " + entry.getValue() + " vezes"));
-
-			System.out.println("\n");
-
-			System.out.println("Bi-gramas (Top 20):");
-			List<Map.Entry<String, Integer>> biGrams = biGramExtractor.extractTopBiGramsFromSite(url);
-			biGrams.forEach(entry -> System.out.println(entry.getKey() + " - " + entry.getValue() + " vezes"));
-
-			System.out.println("\n");
-
-			System.out.println("Tri-gramas (Top 20):");
-			List<Map.Entry<String, Integer>> triGrams = triGramExtractor.extractTopTriGramsFromSite(url);
-			triGrams.forEach(entry -> System.out.println(entry.getKey() + " - " + entry.getValue() + " vezes"));
+			if (!args.containsOption("corpus")) return;
+
+			List<Integer> orders = NGramQuery.orders(args.containsOption("n")
+					? Arrays.stream(args.getOptionValues("n").get(0).split(",")).map(String::trim).map(Integer::valueOf).toList()
+					: List.of(1, 2, 3));
+			Path corpus = Path.of(args.getOptionValues("corpus").get(0));
+			CorpusReport report = corpusService.analyze(corpus, orders, args.containsOption("approx"));
+
+			System.out.println(report.documents() + " documentos (" + report.skipped() + " ignorados) em "
+					+ report.elapsedMillis() + " ms\n");
+			report.ngrams().forEach((order, nGrams) -> {
+				System.out.println(ORDER_NAMES.get(order) + " (Top " + nGrams.size() + "):");
+				nGrams.forEach(entry -> System.out.println(entry.getKey() + " - " + entry.getValue() + " vezes"));
+				System.out.println("\n");
+			});
 		};
 	}
 }
@@ -0,0 +1,187 @@
+package com.example.demo.batch;
+
+import com.example.demo.counting.NGramAccumulator;
+import com.example.demo.counting.PartialCounts;
+import com.example.demo.model.BatchStatus;
+import com.example.demo.model.NGramQuery;
+import com.example.demo.model.SeedResult;
+import com.example.demo.service.CrawlGroup;
+import com.example.demo.service.NGramEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * State of one batch job: its seeds, the results of the ones done so far and the corpus all of them count
+ * into. Listeners are told about every seed as it completes, along with the corpus top n-grams at that point,
+ * and about the end of the job. A job left with no
+ * seeds, all of them belonging to other shards, is done from the start.
+ *
+ * <p>Listeners are called on the thread that completed the seed or ended the job, outside the job's lock, so
+ * a slow listener never holds up {@link #status()} or the other seeds.
+ */
+public class BatchJob {
+
+    public interface Listener {
+
+        void seedCompleted(SeedResult result, Map<Integer, List<Map.Entry<String, Integer>>> corpus);
+
+        void finished(BatchStatus status);
+    }
+
+    private final String id;
+    private final List<NGramQuery> seeds;
+    private final List<Integer> orders;
+    private final CrawlGroup group;
+    private final List<SeedResult> results = new ArrayList<>();
+    private final List<Future<?>> tasks = new ArrayList<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private BatchStatus.State state = BatchStatus.State.RUNNING;
+    private long finishedAtMillis;
+
+    BatchJob(String id, List<NGramQuery> seeds, List<Integer> orders, NGramAccumulator corpus) {
+        this.id = id;
+        this.seeds = seeds;
+        this.orders = orders;
+        this.group = new CrawlGroup(ConcurrentHashMap.newKeySet(), corpus);
+        if (seeds.isEmpty()) {
+            state = BatchStatus.State.DONE;
+            finishedAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public synchronized BatchStatus status() {
+        return new BatchStatus(id, state, seeds.size(), results.size(), List.copyOf(results), corpus());
+    }
+
+    /**
+     * The corpus counts of a job that has ended, to be merged with those of the same job on the other shards.
+     *
+     * @throws IllegalStateException while the job is running
+     */
+    public PartialCounts partial() {
+        synchronized (this) {
+            if (state == BatchStatus.State.RUNNING) {
+                throw new IllegalStateException("Batch job " + id + " is still running");
+            }
+        }
+        return group.corpus().partial();
+    }
+
+    /**
+     * Replays the seeds completed so far to {@code listener} and registers it for the rest. A finished job
+     * calls {@link Listener#finished} straight away.
+     */
+    public void subscribe(Listener listener) {
+        List<SeedResult> completed;
+        BatchStatus status;
+        boolean running;
+        synchronized (this) {
+            completed = List.copyOf(results);
+            status = status();
+            running = state == BatchStatus.State.RUNNING;
+            if (running) {
+                listeners.add(listener);
+            }
+        }
+        for (SeedResult result : completed) {
+            listener.seedCompleted(result, status.corpus());
+        }
+        if (!running) {
+            listener.finished(status);
+        }
+    }
+
+    public synchronized void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void cancel() {
+        List<Listener> notified;
+        BatchStatus status;
+        synchronized (this) {
+            if (state != BatchStatus.State.RUNNING) return;
+
+            tasks.forEach(task -> task.cancel(true));
+            notified = List.copyOf(listeners);
+            status = finish(BatchStatus.State.CANCELLED);
+        }
+        notifyFinished(notified, status);
+    }
+
+    synchronized boolean isRunning() {
+        return state == BatchStatus.State.RUNNING;
+    }
+
+    synchronized boolean isExpired(long now, long ttlMillis) {
+        return state != BatchStatus.State.RUNNING && now - finishedAtMillis >= ttlMillis;
+    }
+
+    List<NGramQuery> seeds() {
+        return seeds;
+    }
+
+    CrawlGroup group() {
+        return group;
+    }
+
+    synchronized void addTask(Future<?> task) {
+        tasks.add(task);
+    }
+
+    void complete(SeedResult result) {
+        List<Listener> notified;
+        BatchStatus finalStatus = null;
+        synchronized (this) {
+            if (state != BatchStatus.State.RUNNING) return;
+
+            results.add(result);
+            notified = List.copyOf(listeners);
+            if (results.size() == seeds.size()) {
+                finalStatus = finish(BatchStatus.State.DONE);
+            }
+        }
+        if (!notified.isEmpty()) {
+            Map<Integer, List<Map.Entry<String, Integer>>> corpus = corpus();
+            for (Listener listener : notified) {
+                listener.seedCompleted(result, corpus);
+            }
+        }
+        if (finalStatus != null) {
+            notifyFinished(notified, finalStatus);
+        }
+    }
+
+    /**
+     * Ends the job and unregisters its listeners, returning the final status for the caller to hand them once it
+     * has let go of the lock.
+     */
+    private BatchStatus finish(BatchStatus.State finalState) {
+        state = finalState;
+        finishedAtMillis = System.currentTimeMillis();
+        listeners.clear();
+        return status();
+    }
+
+    private Map<Integer, List<Map.Entry<String, Integer>>> corpus() {
+        Map<Integer, List<Map.Entry<String, Integer>>> corpus = new TreeMap<>();
+        for (int order : orders) {
+            corpus.put(order, group.corpus().top(order, NGramEngine.TOP_LIMIT));
+        }
+        return corpus;
+    }
+
+    private static void notifyFinished(List<Listener> listeners, BatchStatus status) {
+        for (Listener listener : listeners) {
+            listener.finished(status);
+        }
+    }
+}
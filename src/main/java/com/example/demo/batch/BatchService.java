@@ -0,0 +1,105 @@
+package com.example.demo.batch;
+
+import com.example.demo.config.BatchProperties;
+import com.example.demo.counting.HeavyHittersAggregator;
+import com.example.demo.counting.IncrementalAggregator;
+import com.example.demo.counting.NGramAccumulator;
+import com.example.demo.crawl.ShardAssignment;
+import com.example.demo.crawl.UrlNormalizer;
+import com.example.demo.model.NGramQuery;
+import com.example.demo.model.SeedResult;
+import com.example.demo.service.CrawlListener;
+import com.example.demo.service.NGramEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs batch jobs: every seed of a job is crawled on the batch executor, which bounds how many seeds run at
+ * once across all jobs, and the seeds of a job share their visited pages and a corpus-level accumulator.
+ * Seeds bypass the result cache, since what a seed counts depends on the other seeds of its job. On a sharded
+ * deployment only the seeds {@link ShardAssignment} gives this instance are crawled, so the same job submitted
+ * to every instance crawls each seed once overall. Pages reached from seeds on different shards are counted
+ * by each of them, so merged partial counts may count such pages more than once.
+ *
+ * <p>At most {@code ngram.batch.max-jobs} jobs are kept. Finished jobs are dropped {@code ngram.batch.job-ttl}
+ * after they end, checked whenever jobs are submitted or looked up.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchService {
+
+    private static final int CORPUS_HEAVY_HITTERS_CAPACITY = 10_000;
+
+    private final NGramEngine nGramEngine;
+    private final ExecutorService batchExecutor;
+    private final BatchProperties properties;
+    private final ShardAssignment shardAssignment;
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Starts a job over the distinct seeds of {@code queries} that belong to this shard. The queries must all
+     * ask for the same orders and mode.
+     *
+     * @throws IllegalArgumentException if there are no seeds or more than the configured maximum
+     * @throws RejectedExecutionException if the maximum number of jobs is already kept
+     */
+    public synchronized BatchJob submit(List<NGramQuery> queries) {
+        if (queries.isEmpty() || queries.size() > properties.getMaxSeeds()) {
+            throw new IllegalArgumentException("A batch needs between 1 and " + properties.getMaxSeeds() + " URLs");
+        }
+        purgeExpired();
+        if (jobs.size() >= properties.getMaxJobs()) {
+            throw new RejectedExecutionException("Too many batch jobs kept; try again later");
+        }
+
+        List<NGramQuery> seeds = new ArrayList<>();
+        Set<String> seedUrls = new HashSet<>();
+        for (NGramQuery query : queries) {
+            if (seedUrls.add(UrlNormalizer.normalize(query.url())) && shardAssignment.owns(query.url())) {
+                seeds.add(query);
+            }
+        }
+        NGramQuery first = queries.get(0);
+        NGramAccumulator corpus = first.approximate()
+                ? new HeavyHittersAggregator(first.orders(), CORPUS_HEAVY_HITTERS_CAPACITY)
+                : new IncrementalAggregator(first.orders(), NGramEngine.TOP_LIMIT);
+
+        BatchJob job = new BatchJob(UUID.randomUUID().toString(), seeds, first.orders(), corpus);
+        jobs.put(job.id(), job);
+        for (NGramQuery seed : seeds) {
+            job.addTask(batchExecutor.submit(() -> crawlSeed(job, seed)));
+        }
+        return job;
+    }
+
+    public BatchJob find(String id) {
+        purgeExpired();
+        return jobs.get(id);
+    }
+
+    private void crawlSeed(BatchJob job, NGramQuery seed) {
+        if (!job.isRunning()) return;
+
+        try {
+            job.complete(new SeedResult(seed.url(), nGramEngine.extract(seed, CrawlListener.NONE, job.group()), null));
+        } catch (RuntimeException e) {
+            job.complete(new SeedResult(seed.url(), null, e.getMessage()));
+        }
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        long ttlMillis = properties.getJobTtl().toMillis();
+        jobs.values().removeIf(job -> job.isExpired(now, ttlMillis));
+    }
+}
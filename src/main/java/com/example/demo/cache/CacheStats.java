@@ -0,0 +1,5 @@
+package com.example.demo.cache;
+
+public record CacheStats(long hits, long misses, long revalidations, long evictions, long diskLoads, int entries,
+                         long sizeInBytes) {
+}
@@ -0,0 +1,18 @@
+package com.example.demo.cache;
+
+import com.example.demo.model.NGramReport;
+
+/**
+ * A report together with how it was obtained: computed for this request, shared with an identical request
+ * already in flight, or served from the result cache.
+ */
+public record CachedReport(NGramReport report, Source source, long computedAtMillis) {
+
+    public enum Source {
+        MISS, COALESCED, HIT
+    }
+
+    public long ageSeconds() {
+        return Math.max(0, (System.currentTimeMillis() - computedAtMillis) / 1000);
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.CacheProperties;
+import com.example.demo.crawl.UrlNormalizer;
+import com.example.demo.service.FetchedPage;
+import com.example.demo.service.PageContent;
+import com.example.demo.service.PageFetcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Caches the content of fetched pages by canonical URL in front of {@link PageFetcher}. Entries younger than
+ * the TTL are served as is; older ones are revalidated with a conditional request and kept when the server
+ * answers 304. Memory is bounded by an LRU on the entries' approximate size. When a persist directory is
+ * configured, entries are also written there so they survive a restart; a file goes with its entry when the
+ * entry is evicted, and files left by earlier runs are pruned to the same size, oldest first, on startup.
+ */
+@Slf4j
+@Service
+public class PageCache {
+
+    private static final int FILE_FORMAT_VERSION = 2;
+
+    private final PageFetcher pageFetcher;
+    private final CacheProperties properties;
+    private final Path directory;
+    private final LinkedHashMap<String, PageContent> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long sizeInBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong diskLoads = new AtomicLong();
+
+    public PageCache(PageFetcher pageFetcher, CacheProperties properties) throws IOException {
+        this.pageFetcher = pageFetcher;
+        this.properties = properties;
+        if (properties.isEnabled() && properties.getPersistDirectory() != null) {
+            this.directory = Files.createDirectories(Path.of(properties.getPersistDirectory()));
+            pruneDirectory();
+        } else {
+            this.directory = null;
+        }
+    }
+
+    public PageContent get(String url, Duration fetchTimeout) throws IOException, InterruptedException {
+        String key = UrlNormalizer.normalize(url);
+        if (!properties.isEnabled() || key == null) {
+            misses.incrementAndGet();
+            return PageContent.of(url, fetchUnconditionally(url, fetchTimeout), System.currentTimeMillis());
+        }
+
+        PageContent cached = lookup(key);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.fetchedAtMillis() < properties.getPageTtl().toMillis()) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        FetchedPage page = cached == null
+                ? fetchUnconditionally(url, fetchTimeout)
+                : pageFetcher.fetch(url, cached.etag(), cached.lastModified(), fetchTimeout);
+        PageContent content;
+        if (page.isNotModified()) {
+            revalidations.incrementAndGet();
+            content = cached.revalidated(page, now);
+        } else {
+            misses.incrementAndGet();
+            content = PageContent.of(key, page, now);
+        }
+        store(key, content);
+        return content;
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits.get(), misses.get(), revalidations.get(), evictions.get(), diskLoads.get(),
+                    entries.size(), sizeInBytes);
+        }
+    }
+
+    /**
+     * Fetches {@code url} without validators. A 304 to such a request has no content to fall back on, so it
+     * fails the fetch instead of yielding a page without text.
+     */
+    private FetchedPage fetchUnconditionally(String url, Duration fetchTimeout)
+            throws IOException, InterruptedException {
+        FetchedPage page = pageFetcher.fetch(url, null, null, fetchTimeout);
+        if (page.isNotModified()) {
+            throw new IOException("Unconditional request for " + url + " was answered 304 Not Modified");
+        }
+        return page;
+    }
+
+    private PageContent lookup(String key) {
+        synchronized (entries) {
+            PageContent content = entries.get(key);
+            if (content != null) return content;
+        }
+        if (directory == null) return null;
+
+        PageContent content = readFromDisk(key);
+        if (content != null) {
+            diskLoads.incrementAndGet();
+            remember(key, content);
+        }
+        return content;
+    }
+
+    private void store(String key, PageContent content) {
+        if (remember(key, content) && directory != null) {
+            writeToDisk(key, content);
+        }
+    }
+
+    /**
+     * Keeps {@code content} in memory, evicting the least recently used entries and their files beyond the max
+     * size. Returns {@code false} for content larger than the whole cache, which is not kept.
+     */
+    private boolean remember(String key, PageContent content) {
+        long maxSize = properties.getMaxSize().toBytes();
+        long size = content.sizeInBytes();
+        if (size > maxSize) return false;
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (entries) {
+            PageContent previous = entries.put(key, content);
+            sizeInBytes += size - (previous == null ? 0 : previous.sizeInBytes());
+
+            Iterator<Map.Entry<String, PageContent>> eldest = entries.entrySet().iterator();
+            while (sizeInBytes > maxSize && eldest.hasNext()) {
+                Map.Entry<String, PageContent> entry = eldest.next();
+                sizeInBytes -= entry.getValue().sizeInBytes();
+                eldest.remove();
+                evictions.incrementAndGet();
+                evicted.add(entry.getKey());
+            }
+        }
+        if (directory != null) {
+            evicted.forEach(evictedKey -> deleteQuietly(file(evictedKey)));
+        }
+        return true;
+    }
+
+    /**
+     * Reads the persisted entry of {@code key}, deleting its file when it is of another format version, belongs
+     * to another key or cannot be read.
+     */
+    private PageContent readFromDisk(String key) {
+        Path file = file(key);
+        if (!Files.exists(file)) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_FORMAT_VERSION || !key.equals(readString(in))) {
+                deleteQuietly(file);
+                return null;
+            }
+
+            String finalUrl = readString(in);
+            String etag = readString(in);
+            String lastModified = readString(in);
+            long fetchedAtMillis = in.readLong();
+            int linkCount = in.readInt();
+            List<String> links = new ArrayList<>(linkCount);
+            for (int i = 0; i < linkCount; i++) {
+                links.add(readString(in));
+            }
+            String text = readString(in);
+            return new PageContent(key, finalUrl, text, links, etag, lastModified, fetchedAtMillis);
+        } catch (IOException e) {
+            log.debug("Dropping the unreadable cached page {}: {}", file, e.toString());
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, PageContent content) {
+        Path file = file(key);
+        Path temporary = file.resolveSibling(file.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FILE_FORMAT_VERSION);
+                writeString(out, key);
+                writeString(out, content.finalUrl());
+                writeString(out, content.etag());
+                writeString(out, content.lastModified());
+                out.writeLong(content.fetchedAtMillis());
+                out.writeInt(content.links().size());
+                for (String link : content.links()) {
+                    writeString(out, link);
+                }
+                writeString(out, content.text());
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not persist the cached page {}", key, e);
+            deleteQuietly(temporary);
+        }
+    }
+
+    /**
+     * Deletes the oldest persisted pages until the directory fits in the max size, along with temporary files
+     * left by writes that never finished.
+     */
+    private void pruneDirectory() throws IOException {
+        List<Path> pages = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    deleteQuietly(file);
+                } else if (file.getFileName().toString().endsWith(".page")) {
+                    pages.add(file);
+                }
+            }
+        }
+
+        Map<Path, FileTime> modified = new HashMap<>();
+        long total = 0;
+        for (Path page : pages) {
+            modified.put(page, Files.getLastModifiedTime(page));
+            total += Files.size(page);
+        }
+        pages.sort(Comparator.comparing(modified::get));
+        long maxSize = properties.getMaxSize().toBytes();
+        for (Iterator<Path> oldest = pages.iterator(); total > maxSize && oldest.hasNext(); ) {
+            Path page = oldest.next();
+            total -= Files.size(page);
+            deleteQuietly(page);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", file, e.toString());
+        }
+    }
+
+    private Path file(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(digest) + ".page");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.CacheProperties;
+import com.example.demo.crawl.UrlNormalizer;
+import com.example.demo.model.NGramQuery;
+import com.example.demo.model.NGramReport;
+import com.example.demo.service.NGramEngine;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches n-gram reports by query in front of {@link NGramEngine}. Reports younger than the result TTL are
+ * served as is, and identical queries that arrive while one is being computed wait for that computation
+ * instead of starting their own crawl.
+ */
+@Service
+public class ResultCache {
+
+    private final NGramEngine nGramEngine;
+    private final CacheProperties properties;
+    private final Map<NGramQuery, CompletableFuture<CachedReport>> inFlight = new ConcurrentHashMap<>();
+    private final LinkedHashMap<NGramQuery, CachedReport> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<CachedReport.Source, LongAdder> lookups = new EnumMap<>(CachedReport.Source.class);
+
+    public ResultCache(NGramEngine nGramEngine, CacheProperties properties) {
+        this.nGramEngine = nGramEngine;
+        this.properties = properties;
+        for (CachedReport.Source source : CachedReport.Source.values()) {
+            lookups.put(source, new LongAdder());
+        }
+    }
+
+    public CachedReport get(NGramQuery query) {
+        NGramQuery key = key(query);
+        CachedReport cached = lookup(key);
+        if (cached != null) return counted(cached);
+
+        CompletableFuture<CachedReport> computation = new CompletableFuture<>();
+        CompletableFuture<CachedReport> existing = inFlight.putIfAbsent(key, computation);
+        if (existing != null) {
+            try {
+                CachedReport shared = existing.join();
+                return counted(new CachedReport(shared.report(), CachedReport.Source.COALESCED,
+                        shared.computedAtMillis()));
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            // Another request may have finished and left the in-flight map between our lookup and putIfAbsent.
+            CachedReport result = lookup(key);
+            if (result == null) {
+                NGramReport report = nGramEngine.extract(query);
+                result = new CachedReport(report, CachedReport.Source.MISS, System.currentTimeMillis());
+                store(key, result);
+            }
+            computation.complete(result);
+            return counted(result);
+        } catch (RuntimeException | Error e) {
+            computation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, computation);
+        }
+    }
+
+    /**
+     * Returns the cached report for {@code query} if there is a fresh one, without computing it otherwise.
+     */
+    public CachedReport peek(NGramQuery query) {
+        return lookup(key(query));
+    }
+
+    /**
+     * Caches a report computed outside of {@link #get}, such as by a streamed crawl.
+     */
+    public void put(NGramQuery query, NGramReport report) {
+        store(key(query), new CachedReport(report, CachedReport.Source.MISS, System.currentTimeMillis()));
+    }
+
+    /**
+     * How many {@link #get} calls were answered from each source.
+     */
+    public long lookups(CachedReport.Source source) {
+        return lookups.get(source).sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private CachedReport counted(CachedReport result) {
+        lookups.get(result.source()).increment();
+        return result;
+    }
+
+    private CachedReport lookup(NGramQuery key) {
+        synchronized (entries) {
+            CachedReport cached = entries.get(key);
+            if (cached == null) return null;
+
+            if (System.currentTimeMillis() - cached.computedAtMillis() >= properties.getResultTtl().toMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return new CachedReport(cached.report(), CachedReport.Source.HIT, cached.computedAtMillis());
+        }
+    }
+
+    private void store(NGramQuery key, CachedReport result) {
+        if (result.report().partial() || properties.getResultTtl().isZero() || properties.getMaxResults() <= 0) return;
+
+        synchronized (entries) {
+            entries.put(key, result);
+            Iterator<Map.Entry<NGramQuery, CachedReport>> eldest = entries.entrySet().iterator();
+            while (entries.size() > properties.getMaxResults() && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static NGramQuery key(NGramQuery query) {
+        return new NGramQuery(UrlNormalizer.normalize(query.url()), query.orders(), query.approximate(), query.budget());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("ngram.batch")
+public class BatchProperties {
+
+    private int maxSeeds = 500;
+    private int maxConcurrentSeeds = 4;
+    private int maxJobs = 100;
+    private Duration jobTtl = Duration.ofMinutes(30);
+}
@@ -0,0 +1,19 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("ngram.cache")
+public class CacheProperties {
+
+    private boolean enabled = true;
+    private Duration pageTtl = Duration.ofMinutes(10);
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    private String persistDirectory;
+    private Duration resultTtl = Duration.ofMinutes(5);
+    private int maxResults = 256;
+}
@@ -0,0 +1,51 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties("ngram.content")
+public class ContentProperties {
+
+    public enum Mode {
+        /**
+         * Only the main content of a page: the first matching selector, else the densest block of paragraphs.
+         */
+        MAIN,
+        /**
+         * The text of the whole document, navigation and footers included.
+         */
+        FULL
+    }
+
+    private Mode mode = Mode.MAIN;
+
+    /**
+     * Tried in order; the longest element matched by the first selector that finds enough text is the content.
+     */
+    private List<String> selectors = List.of("article", "main", "[role=main]", "[itemprop=articleBody]");
+
+    /**
+     * Left out of the main content wherever they appear inside it.
+     */
+    private List<String> excludeSelectors = List.of("nav", "footer", "aside", "form", "button", "noscript",
+            "[role=navigation]", "[role=banner]", "[role=contentinfo]", "[aria-hidden=true]",
+            "[class*=cookie]", "[id*=cookie]", "[class*=share]", "[class*=compartilh]");
+
+    /**
+     * Characters of text an element needs to be taken as the main content.
+     */
+    private int minTextLength = 200;
+
+    /**
+     * Lists, tables and blocks of the main content whose text is mostly link text are left out.
+     */
+    private double maxLinkDensity = 0.5;
+
+    /**
+     * Characters of text kept per page in either mode; the rest is dropped.
+     */
+    private int maxTextLength = 500_000;
+}
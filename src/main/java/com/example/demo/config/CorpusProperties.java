@@ -0,0 +1,21 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties("ngram.corpus")
+public class CorpusProperties {
+
+    /**
+     * Directory the corpus endpoint may read from; the endpoint is disabled while it is not set.
+     */
+    private String root;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Largest part of a WARC record block that is read; the rest of the block is skipped.
+     */
+    private DataSize maxBodySize = DataSize.ofMegabytes(2);
+}
@@ -0,0 +1,85 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The single executor every crawl runs its page tasks on. Either a bounded pool of platform threads or,
+ * on Java 21+, one virtual thread per task. Spring shuts it down with the context.
+ */
+@Configuration
+public class CrawlExecutorConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService crawlExecutor(CrawlProperties properties) {
+        if (properties.getExecutorType() == CrawlProperties.ExecutorType.VIRTUAL) {
+            return virtualThreadExecutor();
+        }
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                properties.getPoolSize(), properties.getPoolSize(), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(properties.getQueueCapacity()), threadFactory("crawl-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Runs the coordinating loop of crawls that must not hold a request thread, such as streamed ones. It has
+     * no queue: once {@code max-background-crawls} are running, further ones are rejected.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService backgroundCrawlExecutor(CrawlProperties properties) {
+        return new ThreadPoolExecutor(0, properties.getMaxBackgroundCrawls(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory("background-crawl-"));
+    }
+
+    /**
+     * Sends the events of streamed crawls and followed batch jobs to their clients, one thread per stream, so
+     * crawl and batch threads never wait on a slow client. Sized like the background crawl executor; a stream
+     * opened while as many are still sending waits in its queue.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService streamExecutor(CrawlProperties properties) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                properties.getMaxBackgroundCrawls(), properties.getMaxBackgroundCrawls(), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("crawl-stream-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Runs the seeds of batch jobs, at most {@code ngram.batch.max-concurrent-seeds} at a time across all
+     * jobs; further seeds wait in its queue. Their pages are fetched on the crawl executor.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService batchExecutor(BatchProperties properties) {
+        return new ThreadPoolExecutor(properties.getMaxConcurrentSeeds(), properties.getMaxConcurrentSeeds(),
+                0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory("batch-"));
+    }
+
+    private ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("ngram.crawl.executor-type=virtual requires Java 21 or later", e);
+        }
+    }
+
+    private ThreadFactory threadFactory(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
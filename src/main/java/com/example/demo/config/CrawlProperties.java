@@ -0,0 +1,64 @@
+package com.example.demo.config;
+
+import com.example.demo.crawl.CrawlBudget;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("ngram.crawl")
+public class CrawlProperties {
+
+    public enum ExecutorType {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    private ExecutorType executorType = ExecutorType.PLATFORM;
+    private int poolSize = 16;
+    private int queueCapacity = 1000;
+    private int maxConcurrencyPerCrawl = 5;
+    private int maxBackgroundCrawls = 8;
+    private int maxLinksPerPage = 5;
+
+    /**
+     * Budget of crawls that do not ask for their own.
+     */
+    private Budget budget = new Budget(5, 2, Duration.ofSeconds(5), Duration.ofSeconds(30));
+
+    /**
+     * Highest budget a request may ask for; larger values are lowered to these.
+     */
+    private Budget maxBudget = new Budget(50, 5, Duration.ofSeconds(15), Duration.ofMinutes(2));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+
+        private int maxPages;
+        private int maxDepth;
+        private Duration fetchTimeout;
+        private Duration deadline;
+
+        public CrawlBudget toCrawlBudget() {
+            return new CrawlBudget(maxPages, maxDepth, fetchTimeout, deadline);
+        }
+    }
+
+    public CrawlBudget defaultBudget() {
+        return budget.toCrawlBudget();
+    }
+
+    /**
+     * The default budget with the given overrides, each lowered to the maximum budget if it exceeds it.
+     */
+    public CrawlBudget budget(Integer maxPages, Integer maxDepth, Duration fetchTimeout, Duration deadline) {
+        return defaultBudget()
+                .override(maxPages, maxDepth, fetchTimeout, deadline)
+                .limitedTo(maxBudget.toCrawlBudget());
+    }
+}
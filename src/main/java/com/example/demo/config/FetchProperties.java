@@ -0,0 +1,19 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("ngram.fetch")
+public class FetchProperties {
+
+    private String userAgent = "Mozilla/5.0 (compatible; NGramExtractor/1.0)";
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration requestTimeout = Duration.ofSeconds(5);
+    private DataSize maxBodySize = DataSize.ofMegabytes(2);
+    private int maxConnectionsPerHost = 4;
+    private Duration minRequestInterval = Duration.ofMillis(100);
+}
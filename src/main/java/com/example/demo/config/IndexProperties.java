@@ -0,0 +1,21 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("ngram.index")
+public class IndexProperties {
+
+    /**
+     * Directory of the segment files; crawled pages are not indexed while it is not set.
+     */
+    private String directory;
+    private Duration flushInterval = Duration.ofSeconds(30);
+    private int maxBufferedDocuments = 256;
+    private int maxSegments = 8;
+    private DataSize maxSegmentSize = DataSize.ofMegabytes(512);
+}
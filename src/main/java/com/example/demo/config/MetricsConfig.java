@@ -0,0 +1,70 @@
+package com.example.demo.config;
+
+import com.example.demo.cache.CachedReport;
+import com.example.demo.cache.PageCache;
+import com.example.demo.cache.ResultCache;
+import com.example.demo.index.NGramIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Exposes the state the application already tracks as Micrometer meters, read only when metrics are
+ * scraped: the executors' pool size, active threads and queue depth ({@code executor.*}, by {@code name}),
+ * the page and result caches' hit counts and sizes, and the n-gram index's size.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder executorMetrics(ExecutorService crawlExecutor, ExecutorService backgroundCrawlExecutor,
+                                       ExecutorService streamExecutor, ExecutorService batchExecutor) {
+        return registry -> {
+            new ExecutorServiceMetrics(crawlExecutor, "crawl", Tags.empty()).bindTo(registry);
+            new ExecutorServiceMetrics(backgroundCrawlExecutor, "background-crawl", Tags.empty()).bindTo(registry);
+            new ExecutorServiceMetrics(streamExecutor, "crawl-stream", Tags.empty()).bindTo(registry);
+            new ExecutorServiceMetrics(batchExecutor, "batch", Tags.empty()).bindTo(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder cacheMetrics(PageCache pageCache, ResultCache resultCache) {
+        return registry -> {
+            FunctionCounter.builder("ngram.cache.pages", pageCache, cache -> cache.stats().hits())
+                    .tag("result", "hit").register(registry);
+            FunctionCounter.builder("ngram.cache.pages", pageCache, cache -> cache.stats().misses())
+                    .tag("result", "miss").register(registry);
+            FunctionCounter.builder("ngram.cache.pages", pageCache, cache -> cache.stats().revalidations())
+                    .tag("result", "revalidated").register(registry);
+            FunctionCounter.builder("ngram.cache.pages.evictions", pageCache, cache -> cache.stats().evictions())
+                    .register(registry);
+            Gauge.builder("ngram.cache.pages.size", pageCache, cache -> cache.stats().sizeInBytes())
+                    .baseUnit("bytes").register(registry);
+
+            for (CachedReport.Source source : CachedReport.Source.values()) {
+                FunctionCounter.builder("ngram.cache.results", resultCache, cache -> cache.lookups(source))
+                        .tag("result", source.name().toLowerCase(Locale.ROOT)).register(registry);
+            }
+            Gauge.builder("ngram.cache.results.size", resultCache, ResultCache::size).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder indexMetrics(NGramIndex nGramIndex) {
+        return registry -> {
+            Gauge.builder("ngram.index.documents", nGramIndex, index -> index.stats().liveDocuments())
+                    .register(registry);
+            Gauge.builder("ngram.index.segments", nGramIndex, index -> index.stats().segments())
+                    .register(registry);
+            Gauge.builder("ngram.index.size", nGramIndex, index -> index.stats().sizeInBytes())
+                    .baseUnit("bytes").register(registry);
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Spring Boot's default security (every request authenticated, form login and HTTP Basic), except that the
+ * batch and shard APIs, which are called by programs with HTTP Basic rather than from a browser form, do not
+ * require a CSRF token.
+ */
+@Configuration
+@ConditionalOnWebApplication
+public class SecurityConfig {
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        return http
+                .authorizeHttpRequests(requests -> requests.anyRequest().authenticated())
+                .formLogin(Customizer.withDefaults())
+                .httpBasic(Customizer.withDefaults())
+                .csrf(csrf -> csrf.ignoringRequestMatchers("/batch/**", "/shards/**"))
+                .build();
+    }
+}
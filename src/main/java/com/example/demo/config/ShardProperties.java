@@ -0,0 +1,19 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("ngram.shard")
+public class ShardProperties {
+
+    /**
+     * This instance's shard, from 0 to {@code count - 1}.
+     */
+    private int index = 0;
+
+    /**
+     * Instances batch seeds are spread over; with 1, every seed is crawled here.
+     */
+    private int count = 1;
+}
@@ -0,0 +1,109 @@
+package com.example.demo.controller;
+
+import com.example.demo.batch.BatchJob;
+import com.example.demo.batch.BatchService;
+import com.example.demo.config.CrawlProperties;
+import com.example.demo.model.BatchRequest;
+import com.example.demo.model.BatchStatus;
+import com.example.demo.model.NGramQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Batch jobs over many seed URLs. {@code POST /batch} starts a job and answers 202 with its id; the job can
+ * then be polled at {@code /batch/{id}}, followed as Server-Sent Events at {@code /batch/{id}/stream}
+ * ({@code seed} per completed seed, {@code corpus} with the merged top n-grams after it, {@code done} at the
+ * end) and cancelled with {@code DELETE}. Once it has ended, {@code /batch/{id}/partial} exports its corpus
+ * counts for {@link ShardController} to merge.
+ */
+@RestController
+@RequiredArgsConstructor
+public class BatchController {
+
+    private static final long STREAM_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+
+    private final BatchService batchService;
+    private final CrawlProperties crawlProperties;
+    private final ExecutorService streamExecutor;
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchStatus> submit(@RequestBody BatchRequest request) {
+        if (request.urls() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "urls is required");
+        }
+        List<Integer> orders = request.n() != null ? request.n() : List.of(1, 2, 3);
+        List<NGramQuery> queries = new ArrayList<>(request.urls().size());
+        for (String url : request.urls()) {
+            queries.add(NGramQueries.query(crawlProperties, url, orders, request.approx(), request.maxPages(),
+                    request.maxDepth(), request.fetchTimeoutMs(), request.deadlineMs()));
+        }
+
+        BatchJob job;
+        try {
+            job = batchService.submit(queries);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage(), e);
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/batch/" + job.id()))
+                .body(job.status());
+    }
+
+    @GetMapping("/batch/{id}")
+    public BatchStatus getStatus(@PathVariable String id) {
+        return job(id).status();
+    }
+
+    @DeleteMapping("/batch/{id}")
+    public BatchStatus cancel(@PathVariable String id) {
+        BatchJob job = job(id);
+        job.cancel();
+        return job.status();
+    }
+
+    @GetMapping(value = "/batch/{id}/partial", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] getPartial(@PathVariable String id) {
+        try {
+            return job(id).partial().toByteArray();
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping(value = "/batch/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable String id) {
+        BatchJob job = job(id);
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        BatchStream stream = new BatchStream(emitter, job);
+        job.subscribe(stream);
+        streamExecutor.execute(stream);
+        return emitter;
+    }
+
+    private BatchJob job(String id) {
+        BatchJob job = batchService.find(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No batch job " + id);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.controller;
+
+import com.example.demo.batch.BatchJob;
+import com.example.demo.model.BatchStatus;
+import com.example.demo.model.SeedResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Sends the events of one followed batch job from a thread of its own, so a slow client never holds up the
+ * job's seeds. Every completed seed is sent, but of the corpus top n-grams only the latest is kept: corpora the
+ * client was too slow for are replaced, never queued. The {@code done} event is sent after the last seed.
+ * The stream unsubscribes from the job once its emitter completes, times out or fails.
+ */
+class BatchStream implements BatchJob.Listener, Runnable {
+
+    private final SseEmitter emitter;
+    private final BatchJob job;
+    private final Queue<SeedResult> seeds = new ArrayDeque<>();
+    private Map<Integer, List<Map.Entry<String, Integer>>> corpus;
+    private BatchStatus finalStatus;
+    private boolean closed;
+
+    BatchStream(SseEmitter emitter, BatchJob job) {
+        this.emitter = emitter;
+        this.job = job;
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+        emitter.onError(e -> close());
+    }
+
+    @Override
+    public synchronized void seedCompleted(SeedResult result,
+                                           Map<Integer, List<Map.Entry<String, Integer>>> corpus) {
+        if (finalStatus != null || closed) return;
+
+        seeds.add(result);
+        this.corpus = corpus;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void finished(BatchStatus status) {
+        finalStatus = status;
+        notifyAll();
+    }
+
+    private void close() {
+        synchronized (this) {
+            closed = true;
+            seeds.clear();
+            corpus = null;
+            notifyAll();
+        }
+        job.unsubscribe(this);
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            List<SeedResult> completed;
+            Map<Integer, List<Map.Entry<String, Integer>>> latestCorpus;
+            BatchStatus status;
+            synchronized (this) {
+                try {
+                    while (seeds.isEmpty() && corpus == null && finalStatus == null && !closed) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (closed) return;
+
+                completed = new ArrayList<>(seeds);
+                seeds.clear();
+                latestCorpus = corpus;
+                corpus = null;
+                status = finalStatus;
+            }
+
+            for (SeedResult result : completed) {
+                send("seed", result);
+            }
+            if (latestCorpus != null) {
+                send("corpus", latestCorpus);
+            }
+            if (status != null && completed.isEmpty() && latestCorpus == null) {
+                send("done", status);
+                emitter.complete();
+                return;
+            }
+        }
+    }
+
+    private void send(String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the job goes on and can still be polled.
+            close();
+        }
+    }
+}
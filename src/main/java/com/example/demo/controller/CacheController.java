@@ -0,0 +1,19 @@
+package com.example.demo.controller;
+
+import com.example.demo.cache.CacheStats;
+import com.example.demo.cache.PageCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final PageCache pageCache;
+
+    @GetMapping("/cache/pages/stats")
+    public CacheStats getPageCacheStats() {
+        return pageCache.stats();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.controller;
+
+import com.example.demo.corpus.CorpusService;
+import com.example.demo.model.CorpusReport;
+import com.example.demo.model.NGramQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Offline corpus analysis. {@code path} is relative to {@code ngram.corpus.root}; the endpoint answers 404
+ * while no root is configured.
+ */
+@RestController
+@RequiredArgsConstructor
+public class CorpusController {
+
+    private final CorpusService corpusService;
+
+    @GetMapping("/corpus/ngrams")
+    public CorpusReport getCorpusNGrams(@RequestParam(defaultValue = ".") String path,
+                                        @RequestParam(defaultValue = "1,2,3") List<Integer> n,
+                                        @RequestParam(defaultValue = "false") boolean approx) {
+        try {
+            List<Integer> orders = NGramQuery.orders(n);
+            Path corpus = corpusService.resolve(path);
+            return corpusService.analyze(corpus, orders, approx);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not read the corpus", e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.NGramProgress;
+import com.example.demo.model.NGramReport;
+import com.example.demo.service.CrawlListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Sends the events of one streamed crawl from a thread of its own, so a slow client never holds up the crawl's
+ * workers. Progress is handed over in a single slot that keeps only the latest snapshot: snapshots the client
+ * was too slow for are replaced, never queued, and only the snapshots actually sent are ranked, on this
+ * stream's thread. The final report or error is sent after the last snapshot.
+ */
+class CrawlStream implements CrawlListener, Runnable {
+
+    private final SseEmitter emitter;
+    private Supplier<NGramProgress> latest;
+    private int latestPages;
+    private NGramReport report;
+    private RuntimeException error;
+    private boolean ended;
+    private boolean closed;
+
+    CrawlStream(SseEmitter emitter) {
+        this.emitter = emitter;
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+        emitter.onError(e -> close());
+    }
+
+    @Override
+    public synchronized void pageCrawled(int pagesCrawled, Supplier<NGramProgress> progress) {
+        if (ended || closed || pagesCrawled <= latestPages) return;
+
+        latest = progress;
+        latestPages = pagesCrawled;
+        notifyAll();
+    }
+
+    synchronized void finished(NGramReport report) {
+        this.report = report;
+        end();
+    }
+
+    synchronized void failed(RuntimeException error) {
+        this.error = error;
+        end();
+    }
+
+    /**
+     * Stops sending; progress not yet sent is dropped.
+     */
+    synchronized void close() {
+        closed = true;
+        latest = null;
+        notifyAll();
+    }
+
+    private void end() {
+        ended = true;
+        notifyAll();
+    }
+
+    @Override
+    public void run() {
+        try {
+            Supplier<NGramProgress> progress;
+            while ((progress = nextProgress()) != null) {
+                send("page", progress.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        NGramReport finalReport;
+        RuntimeException finalError;
+        synchronized (this) {
+            if (closed) return;
+            finalReport = report;
+            finalError = error;
+        }
+        if (finalError != null) {
+            emitter.completeWithError(finalError);
+        } else {
+            send("result", finalReport);
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Waits for the next snapshot to send, or returns {@code null} once the crawl has ended and its last
+     * snapshot was taken, or the stream was closed.
+     */
+    private synchronized Supplier<NGramProgress> nextProgress() throws InterruptedException {
+        while (latest == null && !ended && !closed) {
+            wait();
+        }
+        Supplier<NGramProgress> progress = latest;
+        latest = null;
+        return progress;
+    }
+
+    private void send(String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the crawl still finishes and its report is cached.
+            close();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.controller;
+
+import com.example.demo.index.IndexQuery;
+import com.example.demo.index.IndexStats;
+import com.example.demo.index.NGramIndex;
+import com.example.demo.model.IndexReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Queries over every page crawled since the index was enabled, without crawling. {@code from} and {@code to}
+ * take an ISO date (midnight UTC) or instant; {@code score} is {@code count} or {@code tfidf}. The endpoints
+ * answer 404 while {@code ngram.index.directory} is not set.
+ */
+@RestController
+@RequiredArgsConstructor
+public class IndexController {
+
+    private final NGramIndex nGramIndex;
+
+    @GetMapping("/index/ngrams")
+    public IndexReport getIndexedNGrams(@RequestParam(defaultValue = "1") int n,
+                                        @RequestParam(required = false) String site,
+                                        @RequestParam(required = false) String url,
+                                        @RequestParam(required = false) String from,
+                                        @RequestParam(required = false) String to,
+                                        @RequestParam(defaultValue = "count") String score,
+                                        @RequestParam(defaultValue = "20") int limit) {
+        try {
+            IndexQuery query = new IndexQuery(n, site, url, instant(from), instant(to),
+                    IndexQuery.Scoring.valueOf(score.toUpperCase(Locale.ROOT)), limit);
+            return nGramIndex.top(query);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/index/stats")
+    public IndexStats getIndexStats() {
+        return nGramIndex.stats();
+    }
+
+    private static Instant instant(String value) {
+        if (value == null) return null;
+
+        return value.length() == 10
+                ? LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant()
+                : Instant.parse(value);
+    }
+}
@@ -1,40 +1,97 @@
 package com.example.demo.controller;
 
-import com.example.demo.service.BiGramExtractor;
-import com.example.demo.service.TriGramExtractor;
-import com.example.demo.service.UniGramExtractor;
+import com.example.demo.cache.CachedReport;
+import com.example.demo.cache.ResultCache;
+import com.example.demo.config.CrawlProperties;
+import com.example.demo.model.CrawlTimings;
+import com.example.demo.model.NGramReport;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
+/**
+ * N-gram endpoints. Results go through the {@link ResultCache}; the {@code X-Cache} header says whether a
+ * response was computed for it (MISS), shared with an identical request in flight (COALESCED) or served from
+ * the cache (HIT), and {@code Age} how many seconds old its data is. {@code X-Crawl-Partial} is true when the
+ * crawl hit its deadline before finishing. Unless served from the cache, a {@code Server-Timing} header breaks
+ * down the crawl behind the response.
+ *
+ * <p>Every endpoint takes optional {@code maxPages}, {@code maxDepth}, {@code fetchTimeoutMs} and
+ * {@code deadlineMs} overriding the configured crawl budget.
+ */
 @RestController
 @RequiredArgsConstructor
 public class KeywordController {
 
-    private final UniGramExtractor uniGramExtractor;
-    private final BiGramExtractor biGramExtractor;
-    private final TriGramExtractor triGramExtractor;
+    private final ResultCache resultCache;
+    private final CrawlProperties crawlProperties;
+
+    @GetMapping("/ngrams")
+    public ResponseEntity<NGramReport> getNGrams(@RequestParam String url,
+                                                 @RequestParam(defaultValue = "1,2,3") List<Integer> n,
+                                                 @RequestParam(defaultValue = "false") boolean approx,
+                                                 @RequestParam(required = false) Integer maxPages,
+                                                 @RequestParam(required = false) Integer maxDepth,
+                                                 @RequestParam(required = false) Long fetchTimeoutMs,
+                                                 @RequestParam(required = false) Long deadlineMs) {
+        CachedReport result = resultCache.get(NGramQueries.query(crawlProperties, url, n, approx,
+                maxPages, maxDepth, fetchTimeoutMs, deadlineMs));
+        return withCacheHeaders(result).body(result.report());
+    }
 
     @GetMapping("/unigrams")
-    public List<Map.Entry<String, Integer>> getUnigrams(@RequestParam String url) {
-        return uniGramExtractor.extractNGramsFromMultiplePages(url);
+    public ResponseEntity<List<Map.Entry<String, Integer>>> getUnigrams(@RequestParam String url,
+                                                                        @RequestParam(required = false) Integer maxPages,
+                                                                        @RequestParam(required = false) Integer maxDepth,
+                                                                        @RequestParam(required = false) Long fetchTimeoutMs,
+                                                                        @RequestParam(required = false) Long deadlineMs) {
+        return topNGrams(url, 1, maxPages, maxDepth, fetchTimeoutMs, deadlineMs);
     }
 
     @GetMapping("/bigrams")
-    public List<Map.Entry<String, Integer>> getBigrams(@RequestParam String url) {
-        return biGramExtractor.extractTopBiGramsFromSite(url);
+    public ResponseEntity<List<Map.Entry<String, Integer>>> getBigrams(@RequestParam String url,
+                                                                       @RequestParam(required = false) Integer maxPages,
+                                                                       @RequestParam(required = false) Integer maxDepth,
+                                                                       @RequestParam(required = false) Long fetchTimeoutMs,
+                                                                       @RequestParam(required = false) Long deadlineMs) {
+        return topNGrams(url, 2, maxPages, maxDepth, fetchTimeoutMs, deadlineMs);
     }
 
     @GetMapping("/trigrams")
-    public List<Map.Entry<String, Integer>> getTrigrams(@RequestParam String url) {
-        return triGramExtractor.extractTopTriGramsFromSite(url)
-                .stream()
-                .limit(TriGramExtractor.FINAL_TOP_LIMIT)
-                .toList();
+    public ResponseEntity<List<Map.Entry<String, Integer>>> getTrigrams(@RequestParam String url,
+                                                                        @RequestParam(required = false) Integer maxPages,
+                                                                        @RequestParam(required = false) Integer maxDepth,
+                                                                        @RequestParam(required = false) Long fetchTimeoutMs,
+                                                                        @RequestParam(required = false) Long deadlineMs) {
+        return topNGrams(url, 3, maxPages, maxDepth, fetchTimeoutMs, deadlineMs);
     }
-}
 
+    private ResponseEntity<List<Map.Entry<String, Integer>>> topNGrams(String url, int order, Integer maxPages,
+                                                                       Integer maxDepth, Long fetchTimeoutMs,
+                                                                       Long deadlineMs) {
+        CachedReport result = resultCache.get(NGramQueries.query(crawlProperties, url, List.of(order), false,
+                maxPages, maxDepth, fetchTimeoutMs, deadlineMs));
+        return withCacheHeaders(result).body(result.report().ngrams().get(order));
+    }
+
+    private ResponseEntity.BodyBuilder withCacheHeaders(CachedReport result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header("X-Cache", result.source().name())
+                .header(HttpHeaders.AGE, String.valueOf(result.ageSeconds()))
+                .header("X-Crawl-Partial", String.valueOf(result.report().partial()));
+        CrawlTimings timings = result.report().timings();
+        if (timings != null && result.source() != CachedReport.Source.HIT) {
+            response.header("Server-Timing", String.format(Locale.ROOT,
+                    "crawl;dur=%.1f, fetch;dur=%.1f, count;dur=%.1f, merge;dur=%.1f",
+                    timings.totalMillis(), timings.fetchMillis(), timings.countMillis(), timings.mergeMillis()));
+        }
+        return response;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.CrawlProperties;
+import com.example.demo.crawl.CrawlBudget;
+import com.example.demo.model.NGramQuery;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Builds queries from request parameters, answering 400 for invalid ones. Budget overrides above the
+ * configured maximum budget are lowered to it.
+ */
+final class NGramQueries {
+
+    private NGramQueries() {
+    }
+
+    static NGramQuery query(CrawlProperties crawlProperties, String url, List<Integer> orders, boolean approximate,
+                            Integer maxPages, Integer maxDepth, Long fetchTimeoutMs, Long deadlineMs) {
+        try {
+            CrawlBudget budget = crawlProperties.budget(maxPages, maxDepth,
+                    fetchTimeoutMs != null ? Duration.ofMillis(fetchTimeoutMs) : null,
+                    deadlineMs != null ? Duration.ofMillis(deadlineMs) : null);
+            return new NGramQuery(url, orders, approximate, budget);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
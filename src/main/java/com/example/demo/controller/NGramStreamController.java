@@ -0,0 +1,95 @@
+package com.example.demo.controller;
+
+import com.example.demo.cache.CachedReport;
+import com.example.demo.cache.ResultCache;
+import com.example.demo.config.CrawlProperties;
+import com.example.demo.model.NGramQuery;
+import com.example.demo.model.NGramReport;
+import com.example.demo.service.NGramEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Streams a crawl as Server-Sent Events: a {@code page} event with the running top n-grams each time a page
+ * is counted, then a {@code result} event with the final report. A query already in the result cache gets
+ * its {@code result} event straight away.
+ */
+@RestController
+@RequiredArgsConstructor
+public class NGramStreamController {
+
+    /**
+     * Time a stream has past the longest deadline a crawl may be given to send its result.
+     */
+    private static final Duration RESULT_GRACE = Duration.ofSeconds(30);
+
+    private final NGramEngine nGramEngine;
+    private final ResultCache resultCache;
+    private final ExecutorService backgroundCrawlExecutor;
+    private final ExecutorService streamExecutor;
+    private final CrawlProperties crawlProperties;
+
+    @GetMapping(value = "/ngrams/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNGrams(@RequestParam String url,
+                                   @RequestParam(defaultValue = "1,2,3") List<Integer> n,
+                                   @RequestParam(defaultValue = "false") boolean approx,
+                                   @RequestParam(required = false) Integer maxPages,
+                                   @RequestParam(required = false) Integer maxDepth,
+                                   @RequestParam(required = false) Long fetchTimeoutMs,
+                                   @RequestParam(required = false) Long deadlineMs) {
+        NGramQuery query = NGramQueries.query(crawlProperties, url, n, approx,
+                maxPages, maxDepth, fetchTimeoutMs, deadlineMs);
+
+        SseEmitter emitter = new SseEmitter(streamTimeout().toMillis());
+        CachedReport cached = resultCache.peek(query);
+        if (cached != null) {
+            send(emitter, "result", cached.report());
+            emitter.complete();
+            return emitter;
+        }
+
+        CrawlStream stream = new CrawlStream(emitter);
+        try {
+            backgroundCrawlExecutor.execute(() -> {
+                try {
+                    NGramReport report = nGramEngine.extract(query, stream);
+                    resultCache.put(query, report);
+                    stream.finished(report);
+                } catch (RuntimeException e) {
+                    stream.failed(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many crawls in progress", e);
+        }
+        streamExecutor.execute(stream);
+        return emitter;
+    }
+
+    /**
+     * Long enough for the longest deadline a request may ask for, plus time to send the result.
+     */
+    private Duration streamTimeout() {
+        return crawlProperties.getMaxBudget().getDeadline().plus(RESULT_GRACE);
+    }
+
+    private static void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the crawl still finishes and its report is cached.
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.controller;
+
+import com.example.demo.counting.PartialCounts;
+import com.example.demo.crawl.ShardAssignment;
+import com.example.demo.model.MergedReport;
+import com.example.demo.model.ShardInfo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Crawls spread over several instances. Each instance is given the same batch, crawls the seeds of its shard
+ * and exports its corpus counts from {@code /batch/{id}/partial}. {@code POST /shards/merge} takes any number
+ * of those partials, concatenated in the request body, and answers the global top n-grams;
+ * {@code /shards/merge/partial} answers the merged partial instead, so merges can be chained. {@code GET
+ * /shards} tells which shard this instance is and, given a {@code url}, which shard crawls it.
+ */
+@RestController
+@RequiredArgsConstructor
+public class ShardController {
+
+    private final ShardAssignment shardAssignment;
+
+    @GetMapping("/shards")
+    public ShardInfo getShard(@RequestParam(required = false) String url) {
+        return new ShardInfo(shardAssignment.index(), shardAssignment.count(),
+                url == null ? null : shardAssignment.shardOf(url));
+    }
+
+    @PostMapping(value = "/shards/merge", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public MergedReport merge(InputStream body, @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        Merged merged = mergeAll(body);
+        Map<Integer, List<Map.Entry<String, Integer>>> nGrams = new TreeMap<>();
+        Map<Integer, Long> errorBounds = new TreeMap<>();
+        for (int order : merged.counts().orders()) {
+            nGrams.put(order, merged.counts().top(order, limit));
+            errorBounds.put(order, merged.counts().errorBound(order));
+        }
+        return new MergedReport(merged.partials(), nGrams, merged.counts().capacity() > 0, errorBounds);
+    }
+
+    @PostMapping(value = "/shards/merge/partial", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] mergePartial(InputStream body) {
+        return mergeAll(body).counts().toByteArray();
+    }
+
+    private static Merged mergeAll(InputStream body) {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(body));
+        PartialCounts merged = null;
+        int partials = 0;
+        try {
+            while (true) {
+                in.mark(1);
+                if (in.read() < 0) break;
+                in.reset();
+
+                PartialCounts partial = PartialCounts.read(in);
+                if (merged == null) {
+                    merged = partial;
+                } else {
+                    merged.merge(partial);
+                }
+                partials++;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            String reason = e instanceof EOFException ? "the stream ends early" : e.getMessage();
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Partial " + (partials + 1) + ": " + reason, e);
+        }
+        if (merged == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No partial counts to merge");
+        }
+        return new Merged(merged, partials);
+    }
+
+    private record Merged(PartialCounts counts, int partials) {
+    }
+}
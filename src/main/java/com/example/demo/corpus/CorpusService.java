@@ -0,0 +1,299 @@
+package com.example.demo.corpus;
+
+import com.example.demo.config.CorpusProperties;
+import com.example.demo.counting.HeavyHittersAggregator;
+import com.example.demo.counting.NGramAccumulator;
+import com.example.demo.counting.NGramAggregator;
+import com.example.demo.counting.NGramCounts;
+import com.example.demo.model.CorpusReport;
+import com.example.demo.service.ContentExtractor;
+import com.example.demo.service.NGramEngine;
+import com.example.demo.service.TextTokenizer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Counts the n-grams of a local corpus without any network access: a directory tree of HTML and text files
+ * and WARC archives. Files from 1 MB up and uncompressed archives are memory-mapped; archives are split into
+ * segments of whole records. Files and segments are counted in parallel on a fork-join pool through the same
+ * content extractor, tokenizer, per-task {@link NGramCounts} and accumulators as a crawl.
+ */
+@Slf4j
+@Service
+public class CorpusService {
+
+    private static final long MAP_THRESHOLD = 1 << 20;
+    private static final int SOURCES_PER_TASK = 4;
+    private static final int DOCUMENTS_PER_FLUSH = 256;
+    private static final int HEAVY_HITTERS_CAPACITY = 10_000;
+
+    private final CorpusProperties properties;
+    private final ContentExtractor contentExtractor;
+    private final ForkJoinPool pool;
+
+    public CorpusService(CorpusProperties properties, ContentExtractor contentExtractor) {
+        this.properties = properties;
+        this.contentExtractor = contentExtractor;
+        this.pool = new ForkJoinPool(properties.getParallelism());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Resolves {@code relativePath} against the configured corpus root.
+     *
+     * @throws IllegalStateException if no root is configured
+     * @throws IllegalArgumentException if the path does not exist or leaves the root
+     */
+    public Path resolve(String relativePath) throws IOException {
+        if (properties.getRoot() == null) {
+            throw new IllegalStateException("Offline corpus mode is disabled; set ngram.corpus.root to enable it");
+        }
+        Path root = Path.of(properties.getRoot()).toRealPath();
+        Path path = root.resolve(relativePath).normalize();
+        if (!path.startsWith(root) || !Files.exists(path)) {
+            throw new IllegalArgumentException("No such path under the corpus root: " + relativePath);
+        }
+        Path realPath = path.toRealPath();
+        if (!realPath.startsWith(root)) {
+            throw new IllegalArgumentException("No such path under the corpus root: " + relativePath);
+        }
+        return realPath;
+    }
+
+    public CorpusReport analyze(Path path, List<Integer> orders, boolean approximate) throws IOException {
+        long start = System.nanoTime();
+        List<Source> sources = new ArrayList<>();
+        List<FileChannel> channels = new ArrayList<>();
+        NGramAccumulator accumulator = approximate
+                ? new HeavyHittersAggregator(orders, HEAVY_HITTERS_CAPACITY)
+                : new NGramAggregator(orders, pool.getParallelism());
+        Progress progress = new Progress();
+
+        try {
+            try (Stream<Path> files = Files.walk(path)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                    addSources(file, sources, channels);
+                }
+            }
+            pool.invoke(new CountTask(sources, 0, sources.size(), orders, accumulator, progress));
+        } finally {
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+
+        Map<Integer, List<Map.Entry<String, Integer>>> topNGrams = new TreeMap<>();
+        Map<Integer, Long> errorBounds = new TreeMap<>();
+        for (int order : orders) {
+            topNGrams.put(order, accumulator.top(order, NGramEngine.TOP_LIMIT));
+            errorBounds.put(order, accumulator.errorBound(order));
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new CorpusReport(path.toString(), progress.documents.get(), progress.skipped.get(),
+                progress.bytes.get(), topNGrams, approximate, errorBounds, elapsedMillis);
+    }
+
+    private void addSources(Path file, List<Source> sources, List<FileChannel> channels) throws IOException {
+        long maxBodySize = properties.getMaxBodySize().toBytes();
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".warc")) {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            channels.add(channel);
+            for (ByteBuffer segment : WarcReader.mapSegments(channel)) {
+                sources.add(documents -> WarcReader.read(segment, maxBodySize, record -> documents.record(record)));
+            }
+        } else if (name.endsWith(".warc.gz")) {
+            sources.add(documents -> {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024)) {
+                    WarcReader.read(in, maxBodySize, record -> documents.record(record));
+                }
+            });
+        } else if (name.endsWith(".html") || name.endsWith(".htm") || name.endsWith(".xhtml")) {
+            sources.add(documents -> documents.document("text/html", null, read(file), file.toUri().toString()));
+        } else if (name.endsWith(".txt") || name.endsWith(".text")) {
+            sources.add(documents -> documents.document("text/plain", null, read(file), file.toUri().toString()));
+        }
+    }
+
+    private static ByteBuffer read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            return buffer.flip();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Source {
+
+        void read(Documents documents) throws IOException;
+    }
+
+    private static final class Progress {
+
+        private final AtomicInteger documents = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+    }
+
+    /**
+     * Tokenizes the documents of one task into a private table, handing it to the accumulator every
+     * {@link #DOCUMENTS_PER_FLUSH} documents so that it never grows with the size of the corpus.
+     */
+    private final class Documents {
+
+        private final List<Integer> orders;
+        private final NGramAccumulator accumulator;
+        private final Progress progress;
+        private NGramCounts counts;
+        private int pending;
+
+        private Documents(List<Integer> orders, NGramAccumulator accumulator, Progress progress) {
+            this.orders = orders;
+            this.accumulator = accumulator;
+            this.progress = progress;
+            this.counts = new NGramCounts(orders);
+        }
+
+        private void record(WarcRecord record) throws IOException {
+            WarcReader.Payload payload = WarcReader.payload(record);
+            if (payload == null) {
+                progress.skipped.incrementAndGet();
+                return;
+            }
+            document(payload.contentType(), payload.contentEncoding(), payload.body(), record.targetUri());
+        }
+
+        private void document(String contentType, String contentEncoding, ByteBuffer body, String uri)
+                throws IOException {
+            if (!WarcReader.isText(contentType)) {
+                progress.skipped.incrementAndGet();
+                return;
+            }
+            String mimeType = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+            boolean html = mimeType.contains("html") || mimeType.contains("xml");
+            progress.bytes.addAndGet(body.remaining());
+
+            InputStream in = new ByteBufferInputStream(body);
+            if (contentEncoding != null && contentEncoding.toLowerCase(Locale.ROOT).contains("gzip")) {
+                in = new GZIPInputStream(in);
+            }
+            if (html) {
+                contentExtractor.tokenize(Jsoup.parse(in, charset(contentType), uri == null ? "" : uri), counts);
+            } else if (in instanceof ByteBufferInputStream) {
+                TextTokenizer.tokenize(charsetOrUtf8(contentType).decode(body), counts);
+            } else {
+                TextTokenizer.tokenize(new String(in.readAllBytes(), charsetOrUtf8(contentType)), counts);
+            }
+            progress.documents.incrementAndGet();
+
+            if (++pending == DOCUMENTS_PER_FLUSH) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (pending == 0) return;
+
+            accumulator.add(counts);
+            counts = new NGramCounts(orders);
+            pending = 0;
+        }
+
+        private static String charset(String contentType) {
+            if (contentType == null) return null;
+
+            for (String parameter : contentType.split(";")) {
+                String trimmed = parameter.trim();
+                if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                    return trimmed.substring(8).replace("\"", "").trim();
+                }
+            }
+            return null;
+        }
+
+        private static Charset charsetOrUtf8(String contentType) {
+            String charset = charset(contentType);
+            try {
+                return charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset);
+            } catch (IllegalArgumentException e) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+    }
+
+    private final class CountTask extends RecursiveAction {
+
+        private final List<Source> sources;
+        private final int from;
+        private final int to;
+        private final List<Integer> orders;
+        private final NGramAccumulator accumulator;
+        private final Progress progress;
+
+        private CountTask(List<Source> sources, int from, int to, List<Integer> orders,
+                          NGramAccumulator accumulator, Progress progress) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+            this.orders = orders;
+            this.accumulator = accumulator;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SOURCES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CountTask(sources, from, middle, orders, accumulator, progress),
+                        new CountTask(sources, middle, to, orders, accumulator, progress));
+                return;
+            }
+
+            Documents documents = new Documents(orders, accumulator, progress);
+            for (int i = from; i < to; i++) {
+                try {
+                    sources.get(i).read(documents);
+                } catch (IOException | UncheckedIOException e) {
+                    progress.skipped.incrementAndGet();
+                    log.warn("Skipped an unreadable corpus file or archive segment", e);
+                }
+            }
+            documents.flush();
+        }
+    }
+}
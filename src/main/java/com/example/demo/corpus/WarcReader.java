@@ -0,0 +1,295 @@
+package com.example.demo.corpus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads WARC archives, either mapped into memory (uncompressed {@code .warc}) or as a stream (per-record
+ * gzipped {@code .warc.gz}), and extracts the payload of HTTP response and resource records. Blocks are cut
+ * at a maximum size; from a stream, only the blocks that can carry a text document are read, the others are
+ * skipped without being copied.
+ */
+final class WarcReader {
+
+    /**
+     * Upper bound on the size of one mapped segment; segments are the unit of parallel work.
+     */
+    static final long MAX_SEGMENT_SIZE = 64L << 20;
+
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    record Payload(String contentType, String contentEncoding, ByteBuffer body) {
+    }
+
+    private record Header(int end, long contentLength, String type, String targetUri, String contentType,
+                          String contentEncoding, String transferEncoding) {
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer {
+
+        void accept(WarcRecord record) throws IOException;
+    }
+
+    private WarcReader() {
+    }
+
+    /**
+     * Maps an uncompressed archive as segments of whole records, each at most {@link #MAX_SEGMENT_SIZE} unless
+     * a single record is larger. Only the record headers are read to find the boundaries.
+     */
+    static List<ByteBuffer> mapSegments(FileChannel channel) throws IOException {
+        List<ByteBuffer> segments = new ArrayList<>();
+        ByteBuffer headerBuffer = ByteBuffer.allocate(MAX_HEADER_SIZE);
+        long size = channel.size();
+        long segmentStart = 0;
+        long position = 0;
+        while (position < size) {
+            headerBuffer.clear();
+            channel.read(headerBuffer, position);
+            headerBuffer.flip();
+            int start = skipNewlines(headerBuffer, 0);
+            if (start == headerBuffer.limit()) break;
+
+            Header header = warcHeader(headerBuffer, start);
+            if (header == null) {
+                throw new IOException("Malformed WARC record header at offset " + position);
+            }
+            long recordEnd = Math.min(size, position + start + header.end() + header.contentLength());
+            if (recordEnd - segmentStart > MAX_SEGMENT_SIZE && position > segmentStart) {
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, position - segmentStart));
+                segmentStart = position;
+            }
+            position = recordEnd;
+        }
+        if (position > segmentStart) {
+            segments.add(channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, position - segmentStart));
+        }
+        return segments;
+    }
+
+    /**
+     * Reads every record of a mapped segment; record blocks are slices of it, of at most {@code maxBlockSize}
+     * bytes.
+     */
+    static void read(ByteBuffer segment, long maxBlockSize, RecordConsumer consumer) throws IOException {
+        int position = segment.position();
+        while (true) {
+            position = skipNewlines(segment, position);
+            if (position >= segment.limit()) return;
+
+            Header header = warcHeader(segment, position);
+            if (header == null) {
+                throw new IOException("Malformed WARC record header at offset " + position);
+            }
+            int blockStart = position + header.end();
+            int blockLength = (int) Math.min(header.contentLength(), segment.limit() - blockStart);
+            int keptLength = (int) Math.min(blockLength, maxBlockSize);
+            consumer.accept(new WarcRecord(header.type(), header.targetUri(), header.contentType(),
+                    segment.slice(blockStart, keptLength), keptLength < header.contentLength()));
+            position = blockStart + blockLength;
+        }
+    }
+
+    /**
+     * Reads every record of a decompressed archive stream. The block of a resource record is copied to the heap
+     * only if its content type is text, and that of a response record only if its HTTP header announces a
+     * successful, unchunked text response; other blocks are skipped and their records handed over with what
+     * was read of them, if anything. Copies are cut at {@code maxBlockSize} bytes.
+     */
+    static void read(InputStream in, long maxBlockSize, RecordConsumer consumer) throws IOException {
+        while (true) {
+            byte[] headerBytes = readHeader(in, MAX_HEADER_SIZE + 1, true);
+            if (headerBytes.length == 0) return;
+            if (headerBytes.length > MAX_HEADER_SIZE) {
+                throw new IOException("WARC record header larger than " + MAX_HEADER_SIZE + " bytes");
+            }
+
+            Header header = warcHeader(ByteBuffer.wrap(headerBytes), 0);
+            if (header == null) {
+                throw new IOException("Malformed WARC record header");
+            }
+            long length = header.contentLength();
+            String type = header.type() == null ? "" : header.type().toLowerCase(Locale.ROOT);
+            ByteBuffer block = EMPTY;
+            long read = 0;
+            if (type.equals("resource") && isText(header.contentType())) {
+                read = Math.min(length, maxBlockSize);
+                block = ByteBuffer.wrap(in.readNBytes((int) read));
+            } else if (type.equals("response")) {
+                byte[] httpHeader = readHeader(in, Math.min(length, MAX_HEADER_SIZE), false);
+                read = httpHeader.length;
+                Header http = httpHeader(ByteBuffer.wrap(httpHeader));
+                if (http != null && !isChunked(http) && isText(http.contentType())) {
+                    byte[] body = in.readNBytes((int) Math.max(0, Math.min(length, maxBlockSize) - read));
+                    read += body.length;
+                    block = ByteBuffer.allocate((int) read).put(httpHeader).put(body).flip();
+                } else {
+                    block = ByteBuffer.wrap(httpHeader);
+                }
+            }
+            in.skipNBytes(length - read);
+            consumer.accept(new WarcRecord(header.type(), header.targetUri(), header.contentType(), block,
+                    read < length));
+        }
+    }
+
+    /**
+     * The document a record carries: the body of a successful HTTP response, or the block of a resource
+     * record. Returns {@code null} for other records, for chunked responses and for cut responses whose body
+     * is compressed, which cannot be decoded.
+     */
+    static Payload payload(WarcRecord record) {
+        String type = record.type() == null ? "" : record.type().toLowerCase(Locale.ROOT);
+        if (type.equals("resource")) {
+            return new Payload(record.contentType(), null, record.block());
+        }
+        if (!type.equals("response")) return null;
+
+        ByteBuffer block = record.block();
+        Header http = httpHeader(block);
+        if (http == null || isChunked(http)) return null;
+        if (record.truncated() && http.contentEncoding() != null
+                && !http.contentEncoding().equalsIgnoreCase("identity")) {
+            return null;
+        }
+        int bodyStart = block.position() + http.end();
+        return new Payload(http.contentType(), http.contentEncoding(), block.slice(bodyStart, block.limit() - bodyStart));
+    }
+
+    /**
+     * Whether {@code contentType} is a document the corpus counts: HTML, XML or any other text.
+     */
+    static boolean isText(String contentType) {
+        String mimeType = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        return mimeType.contains("html") || mimeType.contains("xml") || mimeType.startsWith("text/");
+    }
+
+    private static boolean isChunked(Header http) {
+        String transferEncoding = http.transferEncoding();
+        return transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked");
+    }
+
+    /**
+     * Reads a header block from {@code in} up to and including its blank line, or until {@code limit} bytes have
+     * been read. With {@code skipLeadingNewlines}, newlines before its first line are skipped and not counted.
+     */
+    private static byte[] readHeader(InputStream in, long limit, boolean skipLeadingNewlines) throws IOException {
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        int lineLength = 0;
+        int b;
+        while (headerBytes.size() < limit && (b = in.read()) != -1) {
+            if (skipLeadingNewlines && headerBytes.size() == 0 && (b == '\r' || b == '\n')) continue;
+
+            headerBytes.write(b);
+            if (b == '\n') {
+                if (lineLength == 0) break;
+                lineLength = 0;
+            } else if (b != '\r') {
+                lineLength++;
+            }
+        }
+        return headerBytes.toByteArray();
+    }
+
+    private static Header warcHeader(ByteBuffer buffer, int start) {
+        if (!startsWith(buffer, start, "WARC/")) return null;
+
+        return header(buffer, start);
+    }
+
+    private static Header httpHeader(ByteBuffer block) {
+        int start = block.position();
+        if (!startsWith(block, start, "HTTP/")) return null;
+
+        int space = indexOf(block, start, (byte) ' ');
+        if (space < 0 || space + 1 >= block.limit() || block.get(space + 1) != '2') return null;
+
+        return header(block, start);
+    }
+
+    /**
+     * Parses the header block starting at absolute index {@code start}, up to and including its blank line.
+     * {@code end} is relative to {@code start}. Returns {@code null} if the blank line is not in the buffer.
+     */
+    private static Header header(ByteBuffer buffer, int start) {
+        long contentLength = 0;
+        String type = null;
+        String targetUri = null;
+        String contentType = null;
+        String contentEncoding = null;
+        String transferEncoding = null;
+
+        int lineStart = indexOf(buffer, start, (byte) '\n');
+        if (lineStart < 0) return null;
+        lineStart++;
+        while (true) {
+            int lineEnd = indexOf(buffer, lineStart, (byte) '\n');
+            if (lineEnd < 0) return null;
+
+            String line = new String(bytes(buffer, lineStart, lineEnd), StandardCharsets.UTF_8).strip();
+            lineStart = lineEnd + 1;
+            if (line.isEmpty()) break;
+
+            int colon = line.indexOf(':');
+            if (colon < 0) continue;
+            String name = line.substring(0, colon).strip().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).strip();
+            switch (name) {
+                case "content-length" -> {
+                    try {
+                        contentLength = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+                case "warc-type" -> type = value;
+                case "warc-target-uri" -> targetUri = value;
+                case "content-type" -> contentType = value;
+                case "content-encoding" -> contentEncoding = value;
+                case "transfer-encoding" -> transferEncoding = value;
+                default -> {
+                }
+            }
+        }
+        return new Header(lineStart - start, contentLength, type, targetUri, contentType, contentEncoding,
+                transferEncoding);
+    }
+
+    private static int skipNewlines(ByteBuffer buffer, int position) {
+        while (position < buffer.limit() && (buffer.get(position) == '\r' || buffer.get(position) == '\n')) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int start, String prefix) {
+        if (buffer.limit() - start < prefix.length()) return false;
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.get(start + i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, byte value) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) == value) return i;
+        }
+        return -1;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return bytes;
+    }
+}
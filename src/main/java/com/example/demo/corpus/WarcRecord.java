@@ -0,0 +1,10 @@
+package com.example.demo.corpus;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One WARC record: its type, target URI, content type and block. For a mapped archive the block is a slice
+ * of the mapping, not a copy. {@code truncated} is set when the block was cut short of its full length.
+ */
+record WarcRecord(String type, String targetUri, String contentType, ByteBuffer block, boolean truncated) {
+}
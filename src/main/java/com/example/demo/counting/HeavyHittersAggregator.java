@@ -0,0 +1,90 @@
+package com.example.demo.counting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate accumulator that keeps a fixed-size {@link SpaceSaving} summary per order instead of every
+ * distinct n-gram, so memory stays bounded however large the crawl gets. N-grams are identified across
+ * pages by a 64-bit hash of their terms, and their text is only kept while they are monitored.
+ */
+public class HeavyHittersAggregator implements NGramAccumulator {
+
+    private final List<Integer> orders;
+    private final int capacity;
+    private final SpaceSaving[] summaries = new SpaceSaving[NGramKeys.MAX_ORDER + 1];
+
+    public HeavyHittersAggregator(List<Integer> orders, int capacity) {
+        this.orders = orders;
+        this.capacity = capacity;
+        for (int order : orders) {
+            summaries[order] = new SpaceSaving(capacity);
+        }
+    }
+
+    @Override
+    public void add(NGramCounts pageCounts) {
+        TokenDictionary dictionary = pageCounts.dictionary();
+        long[] tokenHashes = new long[dictionary.size() + 1];
+        for (int id = 1; id < tokenHashes.length; id++) {
+            tokenHashes[id] = dictionary.stableHash(id);
+        }
+
+        synchronized (this) {
+            for (int order : orders) {
+                SpaceSaving summary = summaries[order];
+                pageCounts.forEach(order, (key, count) -> summary.offer(
+                        hash(key, order, tokenHashes), count, () -> pageCounts.nGram(key, order)));
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<Map.Entry<String, Integer>> top(int order, int limit) {
+        List<String> nGrams = new ArrayList<>(summaries[order].size());
+        TopKHeap heap = new TopKHeap(Math.min(limit, summaries[order].size()));
+        summaries[order].forEach((nGram, count, error) -> {
+            heap.offer(nGrams.size(), count);
+            nGrams.add(nGram);
+        });
+
+        long[] indexes = new long[heap.size()];
+        long[] counts = new long[heap.size()];
+        int size = heap.drainDescending(indexes, counts);
+
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            top.add(Map.entry(nGrams.get((int) indexes[i]), (int) counts[i]));
+        }
+        return top;
+    }
+
+    @Override
+    public synchronized long errorBound(int order) {
+        return summaries[order].errorBound();
+    }
+
+    @Override
+    public synchronized int distinct(int order) {
+        return summaries[order].size();
+    }
+
+    @Override
+    public synchronized PartialCounts partial() {
+        PartialCounts partial = new PartialCounts(orders, capacity);
+        for (int order : orders) {
+            summaries[order].forEach((nGram, count, error) -> partial.add(order, nGram, count, error));
+            partial.setErrorBound(order, summaries[order].errorBound());
+        }
+        return partial;
+    }
+
+    private static long hash(long key, int order, long[] tokenHashes) {
+        long hash = order;
+        for (int position = 0; position < order; position++) {
+            hash = Long.rotateLeft(hash * 0x9E3779B97F4A7C15L, 31) ^ tokenHashes[NGramKeys.id(key, order, position)];
+        }
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.counting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exact accumulator whose top n-grams can be read at any point of the crawl, for streaming partial results.
+ * Pages are merged into one table under a lock, and every count the merge touches is fed to an
+ * {@link IncrementalTopK} per order, so a snapshot costs O(k) however many n-grams have been counted. The
+ * price is that merges are serialized, unlike in {@link NGramAggregator}.
+ */
+public class IncrementalAggregator implements NGramAccumulator {
+
+    private final int k;
+    private final NGramCounts totals;
+    private final IncrementalTopK[] tops = new IncrementalTopK[NGramKeys.MAX_ORDER + 1];
+
+    public IncrementalAggregator(List<Integer> orders, int k) {
+        this.k = k;
+        this.totals = new NGramCounts(orders);
+        for (int order : orders) {
+            tops[order] = new IncrementalTopK(k);
+        }
+    }
+
+    @Override
+    public synchronized void add(NGramCounts pageCounts) {
+        totals.merge(pageCounts, (order, key, count) -> tops[order].update(key, count));
+    }
+
+    @Override
+    public synchronized List<Map.Entry<String, Integer>> top(int order, int limit) {
+        if (limit > k) return totals.top(order, limit);
+
+        long[] keys = new long[k];
+        int[] counts = new int[k];
+        int size = Math.min(limit, tops[order].copyDescending(keys, counts));
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            top.add(Map.entry(totals.nGram(keys[i], order), counts[i]));
+        }
+        return top;
+    }
+
+    @Override
+    public long errorBound(int order) {
+        return 0;
+    }
+
+    @Override
+    public synchronized int distinct(int order) {
+        return totals.distinct(order);
+    }
+
+    @Override
+    public synchronized PartialCounts partial() {
+        return PartialCounts.of(totals);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.counting;
+
+/**
+ * Keeps the {@code k} highest of a set of counts that only ever grow, updated one count at a time. Since a
+ * count can only enter the top by growing, it is enough to see every update: a count that does not beat the
+ * current k-th is rejected in O(1), and anything else costs at most O(k). Reading the top never looks at the
+ * counts outside it.
+ */
+public final class IncrementalTopK {
+
+    private final long[] keys;
+    private final int[] counts;
+    private final LongIntHashMap slots;
+    private int size;
+    private int minSlot;
+
+    public IncrementalTopK(int k) {
+        keys = new long[k];
+        counts = new int[k];
+        slots = new LongIntHashMap(k);
+    }
+
+    /**
+     * Records that the count of {@code key}, which must not be 0, is now {@code count}.
+     */
+    public void update(long key, int count) {
+        boolean full = size == keys.length;
+        if (full && (size == 0 || count <= counts[minSlot])) return;
+
+        int slot = slots.get(key) - 1;
+        if (slot < 0) {
+            if (full) {
+                slot = minSlot;
+                slots.remove(keys[slot]);
+            } else {
+                slot = size++;
+            }
+            keys[slot] = key;
+            slots.put(key, slot + 1);
+        }
+        counts[slot] = count;
+
+        if (size == keys.length && (!full || slot == minSlot)) {
+            minSlot = 0;
+            for (int i = 1; i < size; i++) {
+                if (counts[i] < counts[minSlot]) minSlot = i;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies the current top into {@code keysOut} and {@code countsOut}, highest count first, and returns how
+     * many entries were written.
+     */
+    public int copyDescending(long[] keysOut, int[] countsOut) {
+        for (int i = 0; i < size; i++) {
+            int j = i;
+            for (; j > 0 && countsOut[j - 1] < counts[i]; j--) {
+                keysOut[j] = keysOut[j - 1];
+                countsOut[j] = countsOut[j - 1];
+            }
+            keysOut[j] = keys[i];
+            countsOut[j] = counts[i];
+        }
+        return size;
+    }
+}
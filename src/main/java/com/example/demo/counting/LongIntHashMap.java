@@ -0,0 +1,145 @@
+package com.example.demo.counting;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table from non-zero {@code long} keys to {@code int} counts, with linear probing and
+ * no boxing. Key {@code 0} marks an empty slot. Not thread-safe.
+ */
+public final class LongIntHashMap {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(long key, int value);
+    }
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(Math.max(DEFAULT_CAPACITY, Integer.highestOneBit(Math.max(1, (int) (expectedSize / LOAD_FACTOR))) << 1));
+    }
+
+    /**
+     * Adds {@code delta} to the count of {@code key}, inserting it if absent, and returns the new count.
+     */
+    public int add(long key, int delta) {
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    public void put(long key, int value) {
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Removes {@code key} and returns its count, or 0 if it was absent. Later entries of the probe run are
+     * shifted back so lookups never need tombstones.
+     */
+    public int remove(long key) {
+        int slot = slot(key);
+        if (keys[slot] != key) return 0;
+
+        int value = values[slot];
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        size--;
+        return value;
+    }
+
+    public int get(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    private int slot(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved for empty slots");
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.counting;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the per-page counts of one crawl and answers its top n-grams once the crawl is over.
+ */
+public interface NGramAccumulator {
+
+    void add(NGramCounts pageCounts);
+
+    List<Map.Entry<String, Integer>> top(int order, int limit);
+
+    /**
+     * How much any count returned by {@link #top} may exceed the true count; 0 for exact accumulators.
+     */
+    long errorBound(int order);
+
+    /**
+     * The number of distinct n-grams of the order counted so far; for approximate accumulators, the number
+     * currently tracked.
+     */
+    int distinct(int order);
+
+    /**
+     * The counts so far, in a form that can be exported and merged with the counts of other shards.
+     */
+    PartialCounts partial();
+}
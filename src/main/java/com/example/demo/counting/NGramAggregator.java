@@ -0,0 +1,91 @@
+package com.example.demo.counting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Combines the per-page {@link NGramCounts} of a crawl. Workers count each page into a private table and
+ * hand it over here once the page is done; it is merged into whichever stripe is free, so concurrent pages
+ * rarely wait on each other. The stripes are merged into one result when the crawl ends.
+ */
+public class NGramAggregator implements NGramAccumulator {
+
+    private final List<Integer> orders;
+    private final NGramCounts[] stripes;
+    private final ReentrantLock[] locks;
+    private final AtomicInteger nextStripe = new AtomicInteger();
+    private NGramCounts result;
+
+    public NGramAggregator(List<Integer> orders, int stripeCount) {
+        this.orders = orders;
+        this.stripes = new NGramCounts[stripeCount];
+        this.locks = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new NGramCounts(orders);
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void add(NGramCounts pageCounts) {
+        int start = Math.floorMod(nextStripe.getAndIncrement(), stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            int stripe = (start + i) % stripes.length;
+            if (locks[stripe].tryLock()) {
+                mergeAndUnlock(stripe, pageCounts);
+                return;
+            }
+        }
+        locks[start].lock();
+        mergeAndUnlock(start, pageCounts);
+    }
+
+    @Override
+    public List<Map.Entry<String, Integer>> top(int order, int limit) {
+        return result().top(order, limit);
+    }
+
+    @Override
+    public long errorBound(int order) {
+        return 0;
+    }
+
+    @Override
+    public int distinct(int order) {
+        return result().distinct(order);
+    }
+
+    @Override
+    public PartialCounts partial() {
+        return PartialCounts.of(result());
+    }
+
+    /**
+     * Merges all stripes into a single table, once the crawl is over. Pages added afterwards are not
+     * reflected in it.
+     */
+    public synchronized NGramCounts result() {
+        if (result != null) return result;
+
+        result = new NGramCounts(orders);
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            locks[stripe].lock();
+            try {
+                result.merge(stripes[stripe]);
+            } finally {
+                locks[stripe].unlock();
+            }
+        }
+        return result;
+    }
+
+    private void mergeAndUnlock(int stripe, NGramCounts pageCounts) {
+        try {
+            stripes[stripe].merge(pageCounts);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+}
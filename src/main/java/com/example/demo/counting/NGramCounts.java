@@ -0,0 +1,148 @@
+package com.example.demo.counting;
+
+import com.example.demo.service.TextTokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the n-grams of every requested order from a token stream. Tokens are interned into a
+ * {@link TokenDictionary} and n-grams are counted under packed {@link NGramKeys} in primitive tables, so
+ * memory grows with distinct n-grams rather than occurrences and Strings are only built for the final top
+ * results. Not thread-safe.
+ */
+public class NGramCounts implements TextTokenizer.TokenSink {
+
+    private final List<Integer> orders;
+    private final TokenDictionary dictionary = new TokenDictionary(NGramKeys.MAX_ID);
+    private final LongIntHashMap[] tables = new LongIntHashMap[NGramKeys.MAX_ORDER + 1];
+    private final int[] window = new int[NGramKeys.MAX_ORDER];
+    private int run;
+
+    @FunctionalInterface
+    public interface MergeListener {
+
+        void merged(int order, long key, int count);
+    }
+
+    public NGramCounts(List<Integer> orders) {
+        this.orders = orders;
+        for (int order : orders) {
+            tables[order] = new LongIntHashMap();
+        }
+    }
+
+    @Override
+    public void token(char[] chars, int length, boolean term) {
+        int id = term ? dictionary.idOf(chars, length) : TokenDictionary.NO_ID;
+        if (id == TokenDictionary.NO_ID) {
+            run = 0;
+            return;
+        }
+
+        System.arraycopy(window, 1, window, 0, window.length - 1);
+        window[window.length - 1] = id;
+        run++;
+
+        for (int order : orders) {
+            if (run < order) continue;
+
+            long key = 0;
+            for (int i = window.length - order; i < window.length; i++) {
+                key = NGramKeys.append(key, window[i]);
+            }
+            tables[order].add(key, 1);
+        }
+    }
+
+    @Override
+    public void end() {
+        run = 0;
+    }
+
+    /**
+     * Adds every count of {@code other}, which must count at least the orders of this one, translating its
+     * token ids into this dictionary. Costs one pass over the other's distinct n-grams, not its occurrences.
+     */
+    public void merge(NGramCounts other) {
+        merge(other, (order, key, count) -> {
+        });
+    }
+
+    /**
+     * Like {@link #merge(NGramCounts)}, also reporting the new count of every n-gram the merge adds to.
+     */
+    public void merge(NGramCounts other, MergeListener listener) {
+        int[] ids = new int[other.dictionary.size() + 1];
+        for (int otherId = 1; otherId < ids.length; otherId++) {
+            ids[otherId] = dictionary.idOf(other.dictionary, otherId);
+        }
+
+        for (int order : orders) {
+            LongIntHashMap table = tables[order];
+            other.tables[order].forEach((otherKey, count) -> {
+                long key = 0;
+                for (int position = 0; position < order; position++) {
+                    int id = ids[NGramKeys.id(otherKey, order, position)];
+                    if (id == TokenDictionary.NO_ID) return;
+                    key = NGramKeys.append(key, id);
+                }
+                listener.merged(order, key, table.add(key, count));
+            });
+        }
+    }
+
+    public List<Integer> orders() {
+        return orders;
+    }
+
+    public int distinct(int order) {
+        return tables[order].size();
+    }
+
+    public int count(int order, String nGram) {
+        long key = 0;
+        for (String term : nGram.split(" ")) {
+            int id = dictionary.find(term);
+            if (id == TokenDictionary.NO_ID) return 0;
+            key = NGramKeys.append(key, id);
+        }
+        return tables[order].get(key);
+    }
+
+    /**
+     * The {@code limit} most frequent n-grams of the given order, most frequent first.
+     */
+    public List<Map.Entry<String, Integer>> top(int order, int limit) {
+        TopKHeap heap = new TopKHeap(Math.min(limit, tables[order].size()));
+        tables[order].forEach(heap::offer);
+
+        long[] keys = new long[heap.size()];
+        long[] topCounts = new long[heap.size()];
+        int size = heap.drainDescending(keys, topCounts);
+
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            top.add(Map.entry(nGram(keys[i], order), (int) topCounts[i]));
+        }
+        return top;
+    }
+
+    public void forEach(int order, LongIntHashMap.EntryConsumer consumer) {
+        tables[order].forEach(consumer);
+    }
+
+    public TokenDictionary dictionary() {
+        return dictionary;
+    }
+
+    public String nGram(long key, int order) {
+        StringBuilder nGram = new StringBuilder();
+        for (int position = 0; position < order; position++) {
+            if (position > 0) nGram.append(' ');
+            nGram.append(dictionary.term(NGramKeys.id(key, order, position)));
+        }
+        return nGram.toString();
+    }
+}
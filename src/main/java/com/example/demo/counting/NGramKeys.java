@@ -0,0 +1,22 @@
+package com.example.demo.counting;
+
+/**
+ * Packs up to three token ids into one {@code long}, 21 bits per id, oldest token in the highest bits.
+ */
+public final class NGramKeys {
+
+    public static final int MAX_ORDER = 3;
+    public static final int BITS_PER_ID = 21;
+    public static final int MAX_ID = (1 << BITS_PER_ID) - 1;
+
+    private NGramKeys() {
+    }
+
+    public static long append(long key, int id) {
+        return (key << BITS_PER_ID) | id;
+    }
+
+    public static int id(long key, int order, int position) {
+        return (int) (key >>> (BITS_PER_ID * (order - 1 - position))) & MAX_ID;
+    }
+}
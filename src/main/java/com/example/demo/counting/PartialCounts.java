@@ -0,0 +1,388 @@
+package com.example.demo.counting;
+
+import com.example.demo.io.Varints;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The n-gram counts of one shard of a crawl spread over several instances, in a form that can be written to a
+ * compact binary stream, read back on another instance and merged with the partials of the other shards.
+ * A partial holds either exact counts or a Space-Saving summary of at most {@link #capacity()} n-grams per
+ * order, where each count may exceed the true one by its error and an n-gram that is not kept occurred at most
+ * {@link #errorBound(int)} times. Merging follows the mergeable summaries of Agarwal et al.: an n-gram missing
+ * from one side is counted as often as that side's error bound, so counts stay upper bounds, error bounds add
+ * up, and the largest count dropped when trimming back to the capacity raises the bound. Not thread-safe.
+ *
+ * <p>The stream holds a header (magic, version, capacity, orders), the terms used, each once as UTF-8, and
+ * per order its error bound followed by every n-gram as term indexes, count and error, all as varints.
+ */
+public final class PartialCounts {
+
+    private static final int MAGIC = 0x4E475043;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_TERM_BYTES = 1 << 16;
+
+    private final List<Integer> orders;
+    private final TokenDictionary dictionary = new TokenDictionary(NGramKeys.MAX_ID);
+    private final Table[] tables = new Table[NGramKeys.MAX_ORDER + 1];
+    private int capacity;
+
+    /**
+     * @param capacity the most n-grams kept per order, that of the summary the counts come from; 0 for exact
+     *                 counts, which are never trimmed
+     */
+    public PartialCounts(List<Integer> orders, int capacity) {
+        this.orders = List.copyOf(orders);
+        this.capacity = capacity;
+        for (int order : orders) {
+            tables[order] = new Table();
+        }
+    }
+
+    /**
+     * Copies exact counts.
+     */
+    public static PartialCounts of(NGramCounts counts) {
+        PartialCounts partial = new PartialCounts(counts.orders(), 0);
+        int[] ids = partial.translate(counts.dictionary());
+        for (int order : counts.orders()) {
+            Table table = partial.tables[order];
+            counts.forEach(order, (key, count) -> {
+                long translated = translate(key, order, ids);
+                if (translated != 0) table.add(translated, count, 0);
+            });
+        }
+        return partial;
+    }
+
+    /**
+     * Adds {@code count} occurrences of the space-separated terms of {@code nGram}, of which {@code error} may
+     * be overestimation.
+     */
+    public void add(int order, String nGram, long count, long error) {
+        long key = 0;
+        for (String term : nGram.split(" ")) {
+            int id = dictionary.idOf(term.toCharArray(), term.length());
+            if (id == TokenDictionary.NO_ID) return;
+            key = NGramKeys.append(key, id);
+        }
+        tables[order].add(key, count, error);
+    }
+
+    public void setErrorBound(int order, long errorBound) {
+        tables[order].errorBound = errorBound;
+    }
+
+    /**
+     * Adds every count of {@code other}, which must count the same orders, and trims the result to the larger
+     * capacity of the two, if either is a summary.
+     *
+     * @throws IllegalArgumentException if the orders differ
+     */
+    public void merge(PartialCounts other) {
+        if (!orders.equals(other.orders)) {
+            throw new IllegalArgumentException(
+                    "Cannot merge counts of orders " + other.orders + " into counts of orders " + orders);
+        }
+        if (other.capacity > 0) {
+            capacity = capacity == 0 ? other.capacity : Math.max(capacity, other.capacity);
+        }
+
+        int[] ids = translate(other.dictionary);
+        for (int order : orders) {
+            Table table = tables[order];
+            Table otherTable = other.tables[order];
+            int previousSize = table.size;
+            boolean[] matched = new boolean[previousSize];
+            for (int slot = 0; slot < otherTable.size; slot++) {
+                long key = translate(otherTable.keys[slot], order, ids);
+                if (key == 0) continue;
+
+                int existing = table.slots.get(key) - 1;
+                if (existing >= 0) {
+                    table.counts[existing] += otherTable.counts[slot];
+                    table.errors[existing] += otherTable.errors[slot];
+                    matched[existing] = true;
+                } else {
+                    table.add(key, otherTable.counts[slot] + table.errorBound,
+                            otherTable.errors[slot] + table.errorBound);
+                }
+            }
+            if (otherTable.errorBound > 0) {
+                for (int slot = 0; slot < previousSize; slot++) {
+                    if (matched[slot]) continue;
+                    table.counts[slot] += otherTable.errorBound;
+                    table.errors[slot] += otherTable.errorBound;
+                }
+            }
+            table.errorBound += otherTable.errorBound;
+            table.trim(capacity);
+        }
+    }
+
+    public List<Integer> orders() {
+        return orders;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * How much any count may exceed the true count, and the most an n-gram that is not kept may have occurred;
+     * 0 for exact counts.
+     */
+    public long errorBound(int order) {
+        return tables[order].errorBound;
+    }
+
+    public int distinct(int order) {
+        return tables[order].size;
+    }
+
+    /**
+     * The {@code limit} n-grams of the given order with the highest counts, highest first. Counts past
+     * {@link Integer#MAX_VALUE}, which merged partials can reach, are shown as {@link Integer#MAX_VALUE}.
+     */
+    public List<Map.Entry<String, Integer>> top(int order, int limit) {
+        Table table = tables[order];
+        TopKHeap heap = new TopKHeap(Math.min(limit, table.size));
+        for (int slot = 0; slot < table.size; slot++) {
+            heap.offer(slot, table.counts[slot]);
+        }
+
+        long[] slots = new long[heap.size()];
+        long[] counts = new long[heap.size()];
+        int size = heap.drainDescending(slots, counts);
+
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            top.add(Map.entry(nGram(table.keys[(int) slots[i]], order), (int) Math.min(counts[i], Integer.MAX_VALUE)));
+        }
+        return top;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        int[] indexes = new int[dictionary.size() + 1];
+        int[] termIds = new int[dictionary.size() + 1];
+        int terms = 0;
+        for (int order : orders) {
+            Table table = tables[order];
+            for (int slot = 0; slot < table.size; slot++) {
+                for (int position = 0; position < order; position++) {
+                    int id = NGramKeys.id(table.keys[slot], order, position);
+                    if (indexes[id] == 0) {
+                        indexes[id] = ++terms;
+                        termIds[terms] = id;
+                    }
+                }
+            }
+        }
+
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        Varints.write(out, capacity);
+        Varints.write(out, orders.size());
+        for (int order : orders) {
+            Varints.write(out, order);
+        }
+        Varints.write(out, terms);
+        for (int index = 1; index <= terms; index++) {
+            byte[] bytes = dictionary.term(termIds[index]).getBytes(StandardCharsets.UTF_8);
+            Varints.write(out, bytes.length);
+            out.write(bytes);
+        }
+        for (int order : orders) {
+            Table table = tables[order];
+            Varints.write(out, table.errorBound);
+            Varints.write(out, table.size);
+            for (int slot = 0; slot < table.size; slot++) {
+                for (int position = 0; position < order; position++) {
+                    Varints.write(out, indexes[NGramKeys.id(table.keys[slot], order, position)]);
+                }
+                Varints.write(out, table.counts[slot]);
+                Varints.write(out, table.errors[slot]);
+            }
+        }
+    }
+
+    public byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads one partial written by {@link #write}, leaving {@code in} right after it.
+     *
+     * @throws IOException if the stream ends early or does not hold a partial of this format
+     */
+    public static PartialCounts read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a partial n-gram count stream");
+        }
+        int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported partial n-gram count format version " + version);
+        }
+
+        int capacity = Varints.readInt(in);
+        int orderCount = Varints.readInt(in);
+        if (capacity < 0 || orderCount < 1 || orderCount > NGramKeys.MAX_ORDER) {
+            throw new IOException("Malformed partial n-gram count header");
+        }
+        List<Integer> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            int order = Varints.readInt(in);
+            if (order < 1 || order > NGramKeys.MAX_ORDER || orders.contains(order)) {
+                throw new IOException("Invalid n-gram order " + order);
+            }
+            orders.add(order);
+        }
+        PartialCounts partial = new PartialCounts(orders, capacity);
+
+        int terms = Varints.readInt(in);
+        if (terms < 0 || terms > NGramKeys.MAX_ID) {
+            throw new IOException("Invalid term count " + terms);
+        }
+        int[] ids = new int[terms + 1];
+        for (int index = 1; index <= terms; index++) {
+            int length = Varints.readInt(in);
+            if (length < 0 || length > MAX_TERM_BYTES) {
+                throw new IOException("Invalid term length " + length);
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            char[] term = new String(bytes, StandardCharsets.UTF_8).toCharArray();
+            ids[index] = partial.dictionary.idOf(term, term.length);
+        }
+
+        for (int order : orders) {
+            Table table = partial.tables[order];
+            table.errorBound = Varints.read(in);
+            int size = Varints.readInt(in);
+            if (size < 0) {
+                throw new IOException("Invalid n-gram count " + size);
+            }
+            for (int i = 0; i < size; i++) {
+                long key = 0;
+                for (int position = 0; position < order; position++) {
+                    int index = Varints.readInt(in);
+                    if (index < 1 || index > terms) {
+                        throw new IOException("Invalid term index " + index);
+                    }
+                    key = NGramKeys.append(key, ids[index]);
+                }
+                table.add(key, Varints.read(in), Varints.read(in));
+            }
+        }
+        return partial;
+    }
+
+    private int[] translate(TokenDictionary other) {
+        int[] ids = new int[other.size() + 1];
+        for (int otherId = 1; otherId < ids.length; otherId++) {
+            ids[otherId] = dictionary.idOf(other, otherId);
+        }
+        return ids;
+    }
+
+    /**
+     * Rewrites a key in the ids given by {@code ids}; 0 if one of its tokens has no id there.
+     */
+    private static long translate(long key, int order, int[] ids) {
+        long translated = 0;
+        for (int position = 0; position < order; position++) {
+            int id = ids[NGramKeys.id(key, order, position)];
+            if (id == TokenDictionary.NO_ID) return 0;
+            translated = NGramKeys.append(translated, id);
+        }
+        return translated;
+    }
+
+    private String nGram(long key, int order) {
+        StringBuilder nGram = new StringBuilder();
+        for (int position = 0; position < order; position++) {
+            if (position > 0) nGram.append(' ');
+            nGram.append(dictionary.term(NGramKeys.id(key, order, position)));
+        }
+        return nGram.toString();
+    }
+
+    /**
+     * The n-grams of one order in insertion order, with the position of each kept in {@code slots}.
+     */
+    private static final class Table {
+
+        private final LongIntHashMap slots = new LongIntHashMap();
+        private long[] keys = new long[64];
+        private long[] counts = new long[64];
+        private long[] errors = new long[64];
+        private int size;
+        private long errorBound;
+
+        private void add(long key, long count, long error) {
+            int slot = slots.get(key) - 1;
+            if (slot < 0) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    counts = Arrays.copyOf(counts, size * 2);
+                    errors = Arrays.copyOf(errors, size * 2);
+                }
+                slot = size++;
+                keys[slot] = key;
+                counts[slot] = 0;
+                errors[slot] = 0;
+                slots.put(key, slot + 1);
+            }
+            counts[slot] += count;
+            errors[slot] += error;
+        }
+
+        /**
+         * Keeps the {@code capacity} highest counts, raising the error bound to the highest count dropped.
+         */
+        private void trim(int capacity) {
+            if (capacity == 0 || size <= capacity) return;
+
+            TopKHeap heap = new TopKHeap(capacity + 1);
+            for (int slot = 0; slot < size; slot++) {
+                heap.offer(slot, counts[slot]);
+            }
+            long[] kept = new long[capacity + 1];
+            long[] keptCounts = new long[capacity + 1];
+            heap.drainDescending(kept, keptCounts);
+            errorBound = Math.max(errorBound, keptCounts[capacity]);
+
+            long[] trimmedKeys = new long[capacity];
+            long[] trimmedCounts = new long[capacity];
+            long[] trimmedErrors = new long[capacity];
+            slots.clear();
+            for (int i = 0; i < capacity; i++) {
+                int slot = (int) kept[i];
+                trimmedKeys[i] = keys[slot];
+                trimmedCounts[i] = counts[slot];
+                trimmedErrors[i] = errors[slot];
+                slots.put(keys[slot], i + 1);
+            }
+            keys = trimmedKeys;
+            counts = trimmedCounts;
+            errors = trimmedErrors;
+            size = capacity;
+        }
+    }
+}
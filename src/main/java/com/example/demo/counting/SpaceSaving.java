@@ -0,0 +1,123 @@
+package com.example.demo.counting;
+
+import java.util.function.Supplier;
+
+/**
+ * Space-Saving heavy-hitters summary (Metwally et al.) over {@code long} keys with at most {@code capacity}
+ * counters. A key that is not monitored replaces the one with the smallest count and inherits that count as
+ * its possible overestimation, so every reported count is at least the true count and at most
+ * {@link #errorBound()} above it. The counters are kept in an indexed min-heap. Not thread-safe.
+ */
+public final class SpaceSaving {
+
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final String[] labels;
+    private final int[] heap;
+    private final int[] heapIndex;
+    private final LongIntHashMap slots;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        keys = new long[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        labels = new String[capacity];
+        heap = new int[capacity];
+        heapIndex = new int[capacity];
+        slots = new LongIntHashMap(capacity);
+    }
+
+    /**
+     * Adds {@code weight} occurrences of {@code key}. The label is only computed when the key starts being
+     * monitored.
+     */
+    public void offer(long key, long weight, Supplier<String> label) {
+        total += weight;
+        int slot = slots.get(key) - 1;
+        if (slot >= 0) {
+            counts[slot] += weight;
+            siftDown(heapIndex[slot]);
+            return;
+        }
+
+        if (size < keys.length) {
+            slot = size;
+            heap[size] = slot;
+            heapIndex[slot] = size;
+            size++;
+            errors[slot] = 0;
+            counts[slot] = weight;
+        } else {
+            slot = heap[0];
+            slots.remove(keys[slot]);
+            errors[slot] = counts[slot];
+            counts[slot] += weight;
+        }
+        keys[slot] = key;
+        labels[slot] = label.get();
+        slots.put(key, slot + 1);
+        siftUp(heapIndex[slot]);
+        siftDown(heapIndex[slot]);
+    }
+
+    /**
+     * The maximum amount by which any reported count may exceed the true one: the smallest monitored count
+     * once the summary is full, 0 before that.
+     */
+    public long errorBound() {
+        return size < keys.length ? 0 : counts[heap[0]];
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < size; slot++) {
+            consumer.accept(labels[slot], counts[slot], errors[slot]);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(String label, long count, long error);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[heap[index]]) return;
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[heap[left]] < counts[heap[smallest]]) smallest = left;
+            if (right < size && counts[heap[right]] < counts[heap[smallest]]) smallest = right;
+            if (smallest == index) return;
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int slot = heap[i];
+        heap[i] = heap[j];
+        heap[j] = slot;
+        heapIndex[heap[i]] = i;
+        heapIndex[heap[j]] = j;
+    }
+}
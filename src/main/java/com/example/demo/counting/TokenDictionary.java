@@ -0,0 +1,142 @@
+package com.example.demo.counting;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense ids, starting at 1, to the distinct tokens of a crawl. Lookups take the tokenizer's reused
+ * character buffer, so a token only becomes a String when {@link #term(int)} is asked for it. Not
+ * thread-safe.
+ */
+public final class TokenDictionary {
+
+    public static final int NO_ID = 0;
+
+    private char[] chars = new char[4096];
+    private int charsUsed;
+    private int[] offsets = new int[256];
+    private int[] hashes = new int[256];
+    private int size;
+    private final int maxSize;
+
+    private int[] slots = new int[512];
+    private int mask = slots.length - 1;
+
+    public TokenDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the id of the token in {@code token[0..length)}, adding it if new, or {@link #NO_ID} once the
+     * dictionary is full.
+     */
+    public int idOf(char[] token, int length) {
+        return idOf(token, 0, length);
+    }
+
+    /**
+     * Returns the id, in this dictionary, of token {@code otherId} of {@code other}, adding it if new.
+     */
+    public int idOf(TokenDictionary other, int otherId) {
+        int offset = other.offsets[otherId];
+        return idOf(other.chars, offset, other.offsets[otherId + 1] - offset);
+    }
+
+    /**
+     * Returns the id of {@code term}, or {@link #NO_ID} if it was never added.
+     */
+    public int find(String term) {
+        char[] token = term.toCharArray();
+        int hash = hash(token, 0, token.length);
+        for (int slot = hash & mask, id; (id = slots[slot]) != NO_ID; slot = (slot + 1) & mask) {
+            if (hashes[id] == hash && equals(id, token, 0, token.length)) {
+                return id;
+            }
+        }
+        return NO_ID;
+    }
+
+    /**
+     * A 64-bit hash of token {@code id} that is the same in every dictionary, for comparing n-grams across
+     * crawls without their ids.
+     */
+    public long stableHash(int id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+            hash = (hash ^ chars[i]) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    public String term(int id) {
+        return new String(chars, offsets[id], offsets[id + 1] - offsets[id]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int idOf(char[] source, int start, int length) {
+        int hash = hash(source, start, length);
+        int slot = hash & mask;
+        for (int id; (id = slots[slot]) != NO_ID; slot = (slot + 1) & mask) {
+            if (hashes[id] == hash && equals(id, source, start, length)) {
+                return id;
+            }
+        }
+        if (size == maxSize) return NO_ID;
+
+        int id = add(source, start, length, hash);
+        slots[slot] = id;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private int add(char[] source, int start, int length, int hash) {
+        int id = ++size;
+        if (id + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        if (charsUsed + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charsUsed + length));
+        }
+        System.arraycopy(source, start, chars, charsUsed, length);
+        offsets[id] = charsUsed;
+        charsUsed += length;
+        offsets[id + 1] = charsUsed;
+        hashes[id] = hash;
+        return id;
+    }
+
+    private boolean equals(int id, char[] source, int start, int length) {
+        int offset = offsets[id];
+        if (offsets[id + 1] - offset != length) return false;
+
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] != source[start + i]) return false;
+        }
+        return true;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int id = 1; id <= size; id++) {
+            int slot = hashes[id] & mask;
+            while (slots[slot] != NO_ID) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+    }
+
+    private static int hash(char[] source, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + source[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
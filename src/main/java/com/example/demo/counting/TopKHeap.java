@@ -0,0 +1,81 @@
+package com.example.demo.counting;
+
+/**
+ * Keeps the {@code k} entries with the highest counts seen so far in a primitive binary min-heap, so
+ * selecting the top of {@code n} entries costs O(n log k) time and O(k) memory.
+ */
+public final class TopKHeap {
+
+    private final long[] keys;
+    private final long[] counts;
+    private int size;
+
+    public TopKHeap(int k) {
+        keys = new long[k];
+        counts = new long[k];
+    }
+
+    public void offer(long key, long count) {
+        if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = count;
+            siftUp(size++);
+        } else if (size > 0 && count > counts[0]) {
+            keys[0] = key;
+            counts[0] = count;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Empties the heap into {@code keysOut} and {@code countsOut}, highest count first, and returns how many
+     * entries were written.
+     */
+    public int drainDescending(long[] keysOut, long[] countsOut) {
+        int drained = size;
+        while (size > 0) {
+            keysOut[size - 1] = keys[0];
+            countsOut[size - 1] = counts[0];
+            size--;
+            keys[0] = keys[size];
+            counts[0] = counts[size];
+            siftDown(0);
+        }
+        return drained;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[parent] <= counts[index]) return;
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) smallest = left;
+            if (right < size && counts[right] < counts[smallest]) smallest = right;
+            if (smallest == index) return;
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.crawl;
+
+import java.time.Duration;
+
+/**
+ * Limits of one crawl: how many pages it may count, how many links away from the seed it may go, how long
+ * each fetch may take and how long the whole crawl may run before it returns what it has.
+ */
+public record CrawlBudget(int maxPages, int maxDepth, Duration fetchTimeout, Duration deadline) {
+
+    public CrawlBudget {
+        if (maxPages < 1) {
+            throw new IllegalArgumentException("maxPages must be at least 1: " + maxPages);
+        }
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must not be negative: " + maxDepth);
+        }
+        if (fetchTimeout.isNegative() || fetchTimeout.isZero()) {
+            throw new IllegalArgumentException("fetchTimeout must be positive: " + fetchTimeout);
+        }
+        if (deadline.isNegative() || deadline.isZero()) {
+            throw new IllegalArgumentException("deadline must be positive: " + deadline);
+        }
+    }
+
+    /**
+     * Replaces the limits that are not {@code null}.
+     */
+    public CrawlBudget override(Integer maxPages, Integer maxDepth, Duration fetchTimeout, Duration deadline) {
+        return new CrawlBudget(
+                maxPages != null ? maxPages : this.maxPages,
+                maxDepth != null ? maxDepth : this.maxDepth,
+                fetchTimeout != null ? fetchTimeout : this.fetchTimeout,
+                deadline != null ? deadline : this.deadline);
+    }
+
+    /**
+     * Lowers every limit that exceeds the corresponding one of {@code limits}.
+     */
+    public CrawlBudget limitedTo(CrawlBudget limits) {
+        return new CrawlBudget(
+                Math.min(maxPages, limits.maxPages),
+                Math.min(maxDepth, limits.maxDepth),
+                fetchTimeout.compareTo(limits.fetchTimeout) > 0 ? limits.fetchTimeout : fetchTimeout,
+                deadline.compareTo(limits.deadline) > 0 ? limits.deadline : deadline);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.crawl;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-crawl queue of pages to visit. URLs are deduplicated on their normalized form and scoped to the
+ * seed's site without any network access; only fetched pages have their redirects resolved, through
+ * {@link #resolve(CrawlTask, String)}.
+ *
+ * <p>Every offered task stays pending until {@link #complete(CrawlTask)} is called for it, so a crawl is
+ * finished only once no task is queued or running, including the ones still able to discover links.
+ */
+public class CrawlFrontier {
+
+    private final BlockingQueue<CrawlTask> queue = new LinkedBlockingQueue<>();
+    private final Set<String> seenUrls;
+    private final AtomicInteger admittedPages = new AtomicInteger();
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+    private final int maxPages;
+    private final int maxDepth;
+    private volatile String site;
+
+    public CrawlFrontier(String seedUrl, int maxPages, int maxDepth) {
+        this(seedUrl, maxPages, maxDepth, ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * Creates a frontier that deduplicates against {@code seenUrls}, a concurrent set which may be shared
+     * with other crawls so that a page is visited by only one of them.
+     */
+    public CrawlFrontier(String seedUrl, int maxPages, int maxDepth, Set<String> seenUrls) {
+        this.maxPages = maxPages;
+        this.maxDepth = maxDepth;
+        this.seenUrls = seenUrls;
+
+        String normalizedSeed = UrlNormalizer.normalize(seedUrl);
+        if (normalizedSeed == null) {
+            throw new IllegalArgumentException("Not an http(s) URL: " + seedUrl);
+        }
+        this.site = UrlNormalizer.site(UrlNormalizer.host(normalizedSeed));
+        admit(normalizedSeed, 0);
+    }
+
+    /**
+     * Queues a discovered link if it is in scope, not seen before and the page and depth budgets allow it.
+     */
+    public boolean offer(String url, int depth) {
+        if (depth > maxDepth) return false;
+
+        String normalizedUrl = UrlNormalizer.normalize(url);
+        if (normalizedUrl == null || !isInScope(normalizedUrl)) return false;
+
+        return admit(normalizedUrl, depth);
+    }
+
+    public CrawlTask poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    /**
+     * Records where a fetched page actually ended up. Returns {@code false} when the redirect target is out
+     * of scope or is a page already known to the crawl, in which case the page must not be counted again.
+     */
+    public boolean resolve(CrawlTask task, String finalUrl) {
+        String normalizedFinalUrl = UrlNormalizer.normalize(finalUrl);
+        if (normalizedFinalUrl == null || normalizedFinalUrl.equals(task.url())) return true;
+
+        if (task.depth() == 0) {
+            site = UrlNormalizer.site(UrlNormalizer.host(normalizedFinalUrl));
+        } else if (!isInScope(normalizedFinalUrl)) {
+            return false;
+        }
+        return seenUrls.add(normalizedFinalUrl);
+    }
+
+    public void complete(CrawlTask task) {
+        pendingTasks.decrementAndGet();
+    }
+
+    public boolean isDone() {
+        return pendingTasks.get() == 0;
+    }
+
+    public boolean hasPageBudget() {
+        return admittedPages.get() < maxPages;
+    }
+
+    public int admittedPages() {
+        return admittedPages.get();
+    }
+
+    private boolean isInScope(String normalizedUrl) {
+        return UrlNormalizer.isInSite(UrlNormalizer.host(normalizedUrl), site);
+    }
+
+    private boolean admit(String normalizedUrl, int depth) {
+        if (!hasPageBudget() || !seenUrls.add(normalizedUrl)) return false;
+
+        if (admittedPages.incrementAndGet() > maxPages) {
+            admittedPages.decrementAndGet();
+            return false;
+        }
+        pendingTasks.incrementAndGet();
+        queue.add(new CrawlTask(normalizedUrl, depth));
+        return true;
+    }
+}
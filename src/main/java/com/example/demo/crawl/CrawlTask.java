@@ -0,0 +1,4 @@
+package com.example.demo.crawl;
+
+public record CrawlTask(String url, int depth) {
+}
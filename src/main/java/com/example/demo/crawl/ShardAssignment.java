@@ -0,0 +1,49 @@
+package com.example.demo.crawl;
+
+import com.example.demo.config.ShardProperties;
+import org.springframework.stereotype.Service;
+
+/**
+ * Splits crawls between the instances of a sharded deployment, each started with the same
+ * {@code ngram.shard.count} and its own {@code ngram.shard.index}. A URL belongs to the shard picked by a
+ * hash of its site, which every instance computes alike, so instances given the same seeds split them without
+ * talking to each other. The split is per seed, not per page: a crawl also follows subdomains of its seed and
+ * the site its seed redirects to, so seeds on different shards may still reach, and count, the same pages.
+ */
+@Service
+public class ShardAssignment {
+
+    private final int index;
+    private final int count;
+
+    public ShardAssignment(ShardProperties properties) {
+        this.index = properties.getIndex();
+        this.count = properties.getCount();
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException(
+                    "ngram.shard.index must be between 0 and ngram.shard.count - 1, got " + index + " of " + count);
+        }
+    }
+
+    public int index() {
+        return index;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean owns(String url) {
+        return count == 1 || shardOf(url) == index;
+    }
+
+    public int shardOf(String url) {
+        String normalized = UrlNormalizer.normalize(url);
+        String site = normalized == null ? url : UrlNormalizer.site(UrlNormalizer.host(normalized));
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < site.length(); i++) {
+            hash = (hash ^ site.charAt(i)) * 0x100000001b3L;
+        }
+        return (int) Math.floorMod(hash, (long) count);
+    }
+}
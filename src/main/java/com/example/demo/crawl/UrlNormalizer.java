@@ -0,0 +1,84 @@
+package com.example.demo.crawl;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+
+public final class UrlNormalizer {
+
+    private static final List<String> TRACKING_PARAM_PREFIXES = List.of("utm_", "at_");
+    private static final Set<String> TRACKING_PARAMS = Set.of(
+            "fbclid", "gclid", "dclid", "msclkid", "mc_cid", "mc_eid", "igshid", "_ga", "ocid", "xtor"
+    );
+
+    private UrlNormalizer() {
+    }
+
+    /**
+     * Returns the canonical form of an http(s) URL: lower-cased scheme and host, no default port, no
+     * fragment, no tracking parameters and resolved dot segments. Returns {@code null} for anything else.
+     */
+    public static String normalize(String url) {
+        if (url == null || url.isBlank()) return null;
+
+        URI uri;
+        try {
+            uri = new URI(url.trim().replace(" ", "%20")).normalize();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+
+        String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!"http".equals(scheme) && !"https".equals(scheme) || uri.getHost() == null) return null;
+
+        StringBuilder normalized = new StringBuilder(url.length())
+                .append(scheme).append("://").append(uri.getHost().toLowerCase(Locale.ROOT));
+        int port = uri.getPort();
+        if (port != -1 && !(port == 80 && scheme.equals("http")) && !(port == 443 && scheme.equals("https"))) {
+            normalized.append(':').append(port);
+        }
+
+        String path = uri.getRawPath();
+        normalized.append(path == null || path.isEmpty() ? "/" : path);
+
+        String query = stripTrackingParams(uri.getRawQuery());
+        if (!query.isEmpty()) {
+            normalized.append('?').append(query);
+        }
+        return normalized.toString();
+    }
+
+    public static String host(String normalizedUrl) {
+        return URI.create(normalizedUrl).getHost();
+    }
+
+    /**
+     * The site a host belongs to, used for crawl scoping: the host without a leading {@code www.}.
+     */
+    public static String site(String host) {
+        return host.startsWith("www.") ? host.substring(4) : host;
+    }
+
+    public static boolean isInSite(String host, String site) {
+        return host.equals(site) || host.endsWith("." + site);
+    }
+
+    private static String stripTrackingParams(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) return "";
+
+        StringJoiner kept = new StringJoiner("&");
+        for (String param : rawQuery.split("&")) {
+            if (param.isEmpty()) continue;
+
+            int separator = param.indexOf('=');
+            String name = (separator < 0 ? param : param.substring(0, separator)).toLowerCase(Locale.ROOT);
+            if (!TRACKING_PARAMS.contains(name) && TRACKING_PARAM_PREFIXES.stream().noneMatch(name::startsWith)) {
+                kept.add(param);
+            }
+        }
+        return kept.toString();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.index;
+
+import com.example.demo.counting.NGramKeys;
+
+import java.time.Instant;
+
+/**
+ * Top n-grams of one order over the indexed pages matching every given filter: pages of {@code site}, pages
+ * whose URL starts with {@code urlPrefix}, pages crawled in {@code [from, to)}. A {@code null} filter matches
+ * every page.
+ */
+public record IndexQuery(int order, String site, String urlPrefix, Instant from, Instant to, Scoring scoring,
+                         int limit) {
+
+    public enum Scoring {
+        /**
+         * Total occurrences in the matching pages.
+         */
+        COUNT,
+        /**
+         * Occurrences weighted by inverse document frequency over every indexed page, so n-grams common to
+         * the whole index rank below ones characteristic of the matching pages.
+         */
+        TFIDF
+    }
+
+    public IndexQuery {
+        if (order < 1 || order > NGramKeys.MAX_ORDER) {
+            throw new IllegalArgumentException(
+                    "N-gram order must be between 1 and " + NGramKeys.MAX_ORDER + ": " + order);
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+    }
+}
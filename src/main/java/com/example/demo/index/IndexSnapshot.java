@@ -0,0 +1,77 @@
+package com.example.demo.index;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of the index: its segments, oldest first, and which of their documents are live. A URL
+ * crawled more than once is live only in its latest version, by crawl time and then by segment, so
+ * re-crawled pages replace their earlier counts without rewriting any segment.
+ */
+final class IndexSnapshot {
+
+    static final IndexSnapshot EMPTY = new IndexSnapshot(List.of());
+
+    private final List<Segment> segments;
+    private final BitSet[] live;
+    private final int liveDocuments;
+
+    IndexSnapshot(List<Segment> segments) {
+        this.segments = List.copyOf(segments);
+        this.live = new BitSet[segments.size()];
+
+        Map<String, int[]> latest = new HashMap<>();
+        for (int s = 0; s < segments.size(); s++) {
+            live[s] = new BitSet(segments.get(s).documents().size());
+            List<IndexedDocument> documents = segments.get(s).documents();
+            for (int d = 0; d < documents.size(); d++) {
+                int[] previous = latest.get(documents.get(d).url());
+                if (previous == null || documents.get(d).crawledAtMillis()
+                        >= segments.get(previous[0]).documents().get(previous[1]).crawledAtMillis()) {
+                    latest.put(documents.get(d).url(), new int[]{s, d});
+                }
+            }
+        }
+        for (int[] location : latest.values()) {
+            live[location[0]].set(location[1]);
+        }
+        this.liveDocuments = latest.size();
+    }
+
+    List<Segment> segments() {
+        return segments;
+    }
+
+    BitSet live(int segment) {
+        return live[segment];
+    }
+
+    int liveDocuments() {
+        return liveDocuments;
+    }
+
+    int documents() {
+        int documents = 0;
+        for (Segment segment : segments) {
+            documents += segment.documents().size();
+        }
+        return documents;
+    }
+
+    long sizeInBytes() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.sizeInBytes();
+        }
+        return size;
+    }
+
+    IndexSnapshot with(Segment segment) {
+        List<Segment> next = new ArrayList<>(segments);
+        next.add(segment);
+        return new IndexSnapshot(next);
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.demo.index;
+
+public record IndexStats(boolean enabled, int segments, int documents, int liveDocuments, int bufferedDocuments,
+                         long sizeInBytes, long flushes, long compactions) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.index;
+
+/**
+ * A page as stored in the index: its canonical URL, its site and when it was crawled.
+ */
+public record IndexedDocument(String url, String site, long crawledAtMillis) {
+}
@@ -0,0 +1,542 @@
+package com.example.demo.index;
+
+import com.example.demo.config.IndexProperties;
+import com.example.demo.counting.NGramCounts;
+import com.example.demo.counting.NGramKeys;
+import com.example.demo.model.IndexReport;
+import com.example.demo.model.IndexedNGram;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps the n-gram counts of every crawled page on disk, so corpus-wide questions can be answered without
+ * crawling again. Pages are buffered in memory and flushed as immutable, memory-mapped segments of
+ * front-coded terms with varint postings; a re-crawled page masks its earlier versions. Flushes and
+ * compactions, which merge the smallest segments and drop masked pages, run on one background thread;
+ * queries read the latest published snapshot and never wait for them. The files of compacted segments are
+ * deleted once the last query reading them is done. Buffered pages are not visible to queries until they are
+ * flushed, and pages added after shutdown are dropped.
+ */
+@Slf4j
+@Service
+public class NGramIndex {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final List<Integer> ALL_ORDERS =
+            IntStream.rangeClosed(1, NGramKeys.MAX_ORDER).boxed().toList();
+
+    private final IndexProperties properties;
+    private final Path directory;
+    private final ScheduledExecutorService maintenance;
+    private final List<PendingDocument> buffer = new ArrayList<>();
+    private final Queue<Path> undeletedSegments = new ConcurrentLinkedQueue<>();
+    private boolean closed;
+    private volatile IndexSnapshot snapshot = IndexSnapshot.EMPTY;
+    private long nextSequence = 1;
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+
+    public NGramIndex(IndexProperties properties) throws IOException {
+        this.properties = properties;
+        if (properties.getDirectory() == null) {
+            this.directory = null;
+            this.maintenance = null;
+            return;
+        }
+
+        this.directory = Files.createDirectories(Path.of(properties.getDirectory()));
+        this.snapshot = new IndexSnapshot(openSegments());
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "index-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        maintenance.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (maintenance == null) return;
+
+        synchronized (buffer) {
+            closed = true;
+        }
+        maintenance.execute(this::flushQuietly);
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * The orders a page must be counted in to be indexed.
+     */
+    public List<Integer> orders() {
+        return ALL_ORDERS;
+    }
+
+    /**
+     * Buffers the counts of the page at {@code url}, a canonical URL, crawled now. {@code counts} must count
+     * every order in {@link #orders()} and must not change afterwards. Does nothing once the index is shut down.
+     */
+    public void add(String url, NGramCounts counts) {
+        if (!isEnabled()) return;
+
+        String host = URI.create(url).getHost();
+        IndexedDocument document = new IndexedDocument(url, host == null ? "" : host.toLowerCase(Locale.ROOT),
+                System.currentTimeMillis());
+        synchronized (buffer) {
+            if (closed) return;
+
+            buffer.add(new PendingDocument(document, counts));
+            if (buffer.size() == properties.getMaxBufferedDocuments()) {
+                maintenance.execute(this::flushQuietly);
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered pages to a new segment and waits until it is visible to queries.
+     */
+    public void flush() throws IOException, InterruptedException {
+        runMaintenance(() -> {
+            flushBuffer();
+            return null;
+        });
+    }
+
+    /**
+     * Merges the smallest segments into one, as far as {@code max-segment-size} allows, and waits for it.
+     */
+    public void compact() throws IOException, InterruptedException {
+        runMaintenance(() -> {
+            compact(1);
+            return null;
+        });
+    }
+
+    /**
+     * The top n-grams of the query's order over the pages matching its filters.
+     *
+     * @throws IllegalStateException if the index is disabled
+     */
+    public IndexReport top(IndexQuery query) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("The n-gram index is disabled; set ngram.index.directory to enable it");
+        }
+
+        IndexSnapshot current = acquireSnapshot();
+        try {
+            return top(query, current);
+        } finally {
+            release(current.segments());
+        }
+    }
+
+    public IndexStats stats() {
+        IndexSnapshot current = snapshot;
+        int buffered;
+        synchronized (buffer) {
+            buffered = buffer.size();
+        }
+        return new IndexStats(isEnabled(), current.segments().size(), current.documents(),
+                current.liveDocuments(), buffered, current.sizeInBytes(), flushes.get(), compactions.get());
+    }
+
+    private static IndexReport top(IndexQuery query, IndexSnapshot current) {
+        List<Segment> segments = current.segments();
+        BitSet[] matching = new BitSet[segments.size()];
+        int matchingDocuments = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            matching[s] = (BitSet) current.live(s).clone();
+            List<IndexedDocument> documents = segments.get(s).documents();
+            for (int d = matching[s].nextSetBit(0); d >= 0; d = matching[s].nextSetBit(d + 1)) {
+                if (!matches(query, documents.get(d))) {
+                    matching[s].clear(d);
+                }
+            }
+            matchingDocuments += matching[s].cardinality();
+        }
+
+        PriorityQueue<IndexedNGram> top = new PriorityQueue<>(Comparator.comparingDouble(IndexedNGram::score)
+                .thenComparing(IndexedNGram::nGram, Comparator.reverseOrder()));
+        if (matchingDocuments > 0) {
+            try {
+                collectTop(query, current, matching, top);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        List<IndexedNGram> ngrams = new ArrayList<>(top);
+        ngrams.sort(top.comparator().reversed());
+        return new IndexReport(query.order(), query.scoring().name().toLowerCase(Locale.ROOT), matchingDocuments,
+                current.liveDocuments(), ngrams);
+    }
+
+    /**
+     * Takes a reference on every segment of the current snapshot, so that none of their files is deleted while
+     * a query reads them. A snapshot whose segments were retired in the meantime has already been replaced, and
+     * the new one is taken instead.
+     */
+    private IndexSnapshot acquireSnapshot() {
+        while (true) {
+            IndexSnapshot current = snapshot;
+            List<Segment> segments = current.segments();
+            int retained = 0;
+            while (retained < segments.size() && segments.get(retained).retain()) {
+                retained++;
+            }
+            if (retained == segments.size()) return current;
+
+            release(segments.subList(0, retained));
+        }
+    }
+
+    private void release(List<Segment> segments) {
+        for (Segment segment : segments) {
+            if (segment.release()) {
+                deleteSegment(segment.file());
+            }
+        }
+    }
+
+    /**
+     * Deletes the file of a segment nothing references any more. A file that cannot be deleted yet, such as one
+     * still mapped on Windows, is tried again on the next maintenance run.
+     */
+    private void deleteSegment(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete the retired index segment {} yet: {}", file, e.toString());
+            undeletedSegments.add(file);
+        }
+    }
+
+    private static void collectTop(IndexQuery query, IndexSnapshot current, BitSet[] matching,
+                                   PriorityQueue<IndexedNGram> top) throws IOException {
+        double liveDocuments = current.liveDocuments();
+        TermStatistics statistics = new TermStatistics();
+        mergeTerms(current.segments(), query.order(), (cursors, count) -> {
+            statistics.reset();
+            for (int i = 0; i < count; i++) {
+                BitSet live = current.live(cursors[i].segment());
+                BitSet matched = matching[cursors[i].segment()];
+                cursors[i].cursor().postings((document, occurrences) -> {
+                    if (live.get(document)) statistics.documentFrequency++;
+                    if (matched.get(document)) statistics.count += occurrences;
+                });
+            }
+            if (statistics.count == 0) return;
+
+            double score = query.scoring() == IndexQuery.Scoring.TFIDF
+                    ? statistics.count * (Math.log((1 + liveDocuments) / (1 + statistics.documentFrequency)) + 1)
+                    : statistics.count;
+            if (top.size() == query.limit() && score <= top.peek().score()) return;
+
+            top.add(new IndexedNGram(cursors[0].cursor().term(), statistics.count, statistics.documentFrequency,
+                    score));
+            if (top.size() > query.limit()) {
+                top.poll();
+            }
+        });
+    }
+
+    private static boolean matches(IndexQuery query, IndexedDocument document) {
+        if (query.site() != null && !document.site().equals(query.site().toLowerCase(Locale.ROOT))) return false;
+        if (query.urlPrefix() != null && !document.url().startsWith(query.urlPrefix())) return false;
+        if (query.from() != null && document.crawledAtMillis() < query.from().toEpochMilli()) return false;
+        return query.to() == null || document.crawledAtMillis() < query.to().toEpochMilli();
+    }
+
+    private List<Segment> openSegments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(entry);
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    files.add(entry);
+                }
+            }
+        }
+        files.sort(Comparator.naturalOrder());
+
+        List<Segment> segments = new ArrayList<>(files.size());
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long sequence = Long.parseLong(
+                    name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            segments.add(Segment.open(file, sequence));
+            nextSequence = Math.max(nextSequence, sequence + 1);
+        }
+        return segments;
+    }
+
+    private <T> T runMaintenance(Callable<T> task) throws IOException, InterruptedException {
+        if (!isEnabled()) return null;
+
+        try {
+            return maintenance.submit(task).get();
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("The n-gram index has been shut down", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void flushQuietly() {
+        for (int retries = undeletedSegments.size(); retries > 0; retries--) {
+            deleteSegment(undeletedSegments.remove());
+        }
+        try {
+            flushBuffer();
+        } catch (IOException e) {
+            log.error("Could not flush the n-gram index; the buffered pages are lost", e);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        List<PendingDocument> pending;
+        synchronized (buffer) {
+            if (buffer.isEmpty()) return;
+
+            pending = new ArrayList<>(buffer);
+            buffer.clear();
+        }
+
+        long sequence = nextSequence++;
+        Path file = directory.resolve(segmentName(sequence));
+        List<IndexedDocument> documents = new ArrayList<>(pending.size());
+        for (PendingDocument document : pending) {
+            documents.add(document.document());
+        }
+        try (SegmentWriter writer = new SegmentWriter(file, documents, documents.size())) {
+            for (int order = 1; order <= NGramKeys.MAX_ORDER; order++) {
+                writeTerms(writer, order, pending);
+            }
+            writer.finish();
+        }
+
+        snapshot = snapshot.with(Segment.open(file, sequence));
+        flushes.incrementAndGet();
+        if (snapshot.segments().size() > properties.getMaxSegments()) {
+            try {
+                compact(properties.getMaxSegments());
+            } catch (IOException e) {
+                log.warn("Could not compact the n-gram index after a flush; its segments are kept as they are", e);
+            }
+        }
+    }
+
+    private static void writeTerms(SegmentWriter writer, int order, List<PendingDocument> pending) throws IOException {
+        Map<String, Postings> terms = new HashMap<>();
+        for (int document = 0; document < pending.size(); document++) {
+            NGramCounts counts = pending.get(document).counts();
+            if (!counts.orders().contains(order)) continue;
+
+            int id = document;
+            counts.forEach(order, (key, count) ->
+                    terms.computeIfAbsent(counts.nGram(key, order), term -> new Postings()).add(id, count));
+        }
+
+        byte[][] keys = new byte[terms.size()][];
+        Postings[] postings = new Postings[terms.size()];
+        int i = 0;
+        for (Map.Entry<String, Postings> term : terms.entrySet()) {
+            keys[i] = term.getKey().getBytes(StandardCharsets.UTF_8);
+            postings[i++] = term.getValue();
+        }
+        Integer[] sorted = new Integer[keys.length];
+        for (i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> Arrays.compareUnsigned(keys[a], keys[b]));
+        for (int term : sorted) {
+            writer.addTerm(order, keys[term], keys[term].length, postings[term].documents, postings[term].counts,
+                    postings[term].size);
+        }
+    }
+
+    /**
+     * Merges segments, smallest first, into one while their total size stays within {@code max-segment-size},
+     * as long as more than {@code maxSegments} remain.
+     */
+    private void compact(int maxSegments) throws IOException {
+        IndexSnapshot current = snapshot;
+        if (current.segments().size() <= maxSegments) return;
+
+        List<Segment> bySize = new ArrayList<>(current.segments());
+        bySize.sort(Comparator.comparingLong(Segment::sizeInBytes));
+        long maxSize = properties.getMaxSegmentSize().toBytes();
+        List<Segment> selected = new ArrayList<>();
+        long size = 0;
+        for (Segment segment : bySize) {
+            if (size + segment.sizeInBytes() > maxSize) break;
+            selected.add(segment);
+            size += segment.sizeInBytes();
+        }
+        if (selected.size() < 2) return;
+        selected.sort(Comparator.comparingLong(Segment::sequence));
+
+        List<Segment> merged = new ArrayList<>(current.segments());
+        merged.removeAll(selected);
+        merged.add(merge(current, selected));
+        snapshot = new IndexSnapshot(merged);
+        compactions.incrementAndGet();
+        release(selected);
+    }
+
+    private Segment merge(IndexSnapshot current, List<Segment> selected) throws IOException {
+        List<IndexedDocument> documents = new ArrayList<>();
+        int[][] remap = new int[selected.size()][];
+        for (int i = 0; i < selected.size(); i++) {
+            Segment segment = selected.get(i);
+            BitSet live = current.live(current.segments().indexOf(segment));
+            remap[i] = new int[segment.documents().size()];
+            for (int d = 0; d < remap[i].length; d++) {
+                if (live.get(d)) {
+                    remap[i][d] = documents.size();
+                    documents.add(segment.documents().get(d));
+                } else {
+                    remap[i][d] = -1;
+                }
+            }
+        }
+
+        long sequence = nextSequence++;
+        Path file = directory.resolve(segmentName(sequence));
+        try (SegmentWriter writer = new SegmentWriter(file, documents, documents.size())) {
+            Postings postings = new Postings();
+            for (int order = 1; order <= NGramKeys.MAX_ORDER; order++) {
+                int termOrder = order;
+                mergeTerms(selected, order, (cursors, count) -> {
+                    postings.size = 0;
+                    for (int i = 0; i < count; i++) {
+                        int[] documentIds = remap[cursors[i].segment()];
+                        cursors[i].cursor().postings((document, occurrences) -> {
+                            if (documentIds[document] >= 0) postings.add(documentIds[document], occurrences);
+                        });
+                    }
+                    if (postings.size > 0) {
+                        writer.addTerm(termOrder, cursors[0].cursor().key(), cursors[0].cursor().keyLength(),
+                                postings.documents, postings.counts, postings.size);
+                    }
+                });
+            }
+            writer.finish();
+        }
+        return Segment.open(file, sequence);
+    }
+
+    /**
+     * Walks the terms of one order across {@code segments} in key order, handing each distinct term to
+     * {@code consumer} with the cursors positioned on it, in segment order.
+     */
+    private static void mergeTerms(List<Segment> segments, int order, TermGroupConsumer consumer) throws IOException {
+        PriorityQueue<SegmentCursor> queue = new PriorityQueue<>((a, b) -> {
+            int comparison = a.cursor().compareTo(b.cursor());
+            return comparison != 0 ? comparison : Integer.compare(a.segment(), b.segment());
+        });
+        for (int s = 0; s < segments.size(); s++) {
+            SegmentCursor cursor = new SegmentCursor(s, segments.get(s).cursor(order));
+            if (cursor.cursor().next()) queue.add(cursor);
+        }
+
+        SegmentCursor[] group = new SegmentCursor[segments.size()];
+        while (!queue.isEmpty()) {
+            int count = 0;
+            group[count++] = queue.poll();
+            while (!queue.isEmpty() && queue.peek().cursor().compareTo(group[0].cursor()) == 0) {
+                group[count++] = queue.poll();
+            }
+            consumer.accept(group, count);
+            for (int i = 0; i < count; i++) {
+                if (group[i].cursor().next()) queue.add(group[i]);
+            }
+        }
+    }
+
+    private static String segmentName(long sequence) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+
+    private record PendingDocument(IndexedDocument document, NGramCounts counts) {
+    }
+
+    private record SegmentCursor(int segment, Segment.TermCursor cursor) {
+    }
+
+    @FunctionalInterface
+    private interface TermGroupConsumer {
+
+        void accept(SegmentCursor[] cursors, int count) throws IOException;
+    }
+
+    private static final class TermStatistics {
+
+        private long count;
+        private int documentFrequency;
+
+        private void reset() {
+            count = 0;
+            documentFrequency = 0;
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] documents = new int[4];
+        private int[] counts = new int[4];
+        private int size;
+
+        private void add(int document, int count) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            documents[size] = document;
+            counts[size++] = count;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.demo.index;
+
+import com.example.demo.counting.NGramKeys;
+import com.example.demo.io.Varints;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A memory-mapped, immutable segment written by {@link SegmentWriter}. The document table is decoded when
+ * the segment is opened; terms and postings are only read through {@link TermCursor}s, which share the
+ * mapping and are cheap to create. A segment counts its references, one held by the index while the segment
+ * is part of its current snapshot and one per query reading it, so its file is only deleted once nothing
+ * reads the mapping any more.
+ */
+final class Segment {
+
+    private final Path file;
+    private final long sequence;
+    private final MappedByteBuffer buffer;
+    private final List<IndexedDocument> documents;
+    private final long[] sectionStarts = new long[NGramKeys.MAX_ORDER + 2];
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private Segment(Path file, long sequence, MappedByteBuffer buffer, List<IndexedDocument> documents) {
+        this.file = file;
+        this.sequence = sequence;
+        this.buffer = buffer;
+        this.documents = documents;
+    }
+
+    static Segment open(Path file, long sequence) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large to map: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        ByteBuffer reader = buffer.duplicate();
+        if (reader.remaining() < 8 + SegmentWriter.FOOTER_SIZE || reader.getInt() != SegmentWriter.MAGIC
+                || reader.getInt() != SegmentWriter.VERSION
+                || buffer.getInt(buffer.limit() - Integer.BYTES) != SegmentWriter.MAGIC) {
+            throw new IOException("Not an index segment: " + file);
+        }
+
+        int documentCount = Varints.readInt(reader);
+        List<IndexedDocument> documents = new ArrayList<>(documentCount);
+        for (int i = 0; i < documentCount; i++) {
+            documents.add(new IndexedDocument(readString(reader), readString(reader), Varints.read(reader)));
+        }
+
+        Segment segment = new Segment(file, sequence, buffer, documents);
+        int footer = buffer.limit() - SegmentWriter.FOOTER_SIZE;
+        for (int order = 1; order <= NGramKeys.MAX_ORDER + 1; order++) {
+            segment.sectionStarts[order] = buffer.getLong(footer + (order - 1) * Long.BYTES);
+        }
+        return segment;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    /**
+     * Takes a reference, unless the last one is already gone.
+     */
+    boolean retain() {
+        int current;
+        do {
+            current = references.get();
+            if (current == 0) return false;
+        } while (!references.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Drops a reference, returning {@code true} if it was the last one and the file may be deleted.
+     */
+    boolean release() {
+        return references.decrementAndGet() == 0;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    List<IndexedDocument> documents() {
+        return documents;
+    }
+
+    TermCursor cursor(int order) {
+        ByteBuffer section = buffer.duplicate();
+        section.limit((int) sectionStarts[order + 1]).position((int) sectionStarts[order]);
+        return new TermCursor(section);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Varints.readInt(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    interface PostingConsumer {
+
+        void posting(int document, int count);
+    }
+
+    /**
+     * Walks the terms of one order in key order. The current key lives in a reused buffer; postings are
+     * skipped unless asked for.
+     */
+    static final class TermCursor {
+
+        private final ByteBuffer section;
+        private byte[] key = new byte[64];
+        private int keyLength;
+        private int postingCount;
+        private int postingsStart;
+        private int postingsLength;
+
+        private TermCursor(ByteBuffer section) {
+            this.section = section;
+            this.postingsStart = section.position();
+        }
+
+        boolean next() {
+            section.position(postingsStart + postingsLength);
+            if (!section.hasRemaining()) return false;
+
+            int shared = Varints.readInt(section);
+            int suffixLength = Varints.readInt(section);
+            keyLength = shared + suffixLength;
+            if (key.length < keyLength) {
+                key = Arrays.copyOf(key, Math.max(keyLength, key.length * 2));
+            }
+            section.get(key, shared, suffixLength);
+            postingCount = Varints.readInt(section);
+            postingsLength = Varints.readInt(section);
+            postingsStart = section.position();
+            return true;
+        }
+
+        byte[] key() {
+            return key;
+        }
+
+        int keyLength() {
+            return keyLength;
+        }
+
+        String term() {
+            return new String(key, 0, keyLength, StandardCharsets.UTF_8);
+        }
+
+        int postingCount() {
+            return postingCount;
+        }
+
+        void postings(PostingConsumer consumer) {
+            ByteBuffer postings = section.duplicate().position(postingsStart);
+            int document = 0;
+            for (int i = 0; i < postingCount; i++) {
+                document += Varints.readInt(postings);
+                consumer.posting(document, Varints.readInt(postings));
+            }
+        }
+
+        int compareTo(TermCursor other) {
+            return Arrays.compareUnsigned(key, 0, keyLength, other.key, 0, other.keyLength);
+        }
+    }
+}
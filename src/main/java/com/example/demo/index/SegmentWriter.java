@@ -0,0 +1,168 @@
+package com.example.demo.index;
+
+import com.example.demo.counting.NGramKeys;
+import com.example.demo.io.Varints;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Writes one immutable segment file. Layout:
+ *
+ * <pre>
+ * int magic, int version
+ * varint documentCount, then per document: string url, string site, varint crawledAtMillis
+ * per order 1..MAX_ORDER, terms in ascending unsigned byte order of their UTF-8 text:
+ *     varint sharedPrefix, varint suffixLength, suffix bytes   (front-coded against the previous term)
+ *     varint postingCount, varint postingsLength
+ *     postings: varint documentDelta, varint count            (ascending document ids)
+ * footer: long sectionStart[MAX_ORDER], long termsEnd, int magic
+ * </pre>
+ *
+ * Terms must be added grouped by ascending order and sorted within an order. The file is written under a
+ * temporary name and moved into place by {@link #finish()}.
+ */
+final class SegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x4E474958;
+    static final int VERSION = 1;
+    static final int FOOTER_SIZE = (NGramKeys.MAX_ORDER + 1) * Long.BYTES + Integer.BYTES;
+
+    private final Path file;
+    private final Path temporary;
+    private final DataOutputStream out;
+    private final long[] sectionStarts = new long[NGramKeys.MAX_ORDER + 1];
+    private final PostingsBuffer postings = new PostingsBuffer();
+    private long position;
+    private int order;
+    private byte[] previousKey = new byte[0];
+    private int previousKeyLength;
+    private boolean finished;
+
+    SegmentWriter(Path file, Iterable<IndexedDocument> documents, int documentCount) throws IOException {
+        this.file = file;
+        this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16));
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        Varints.write(out, documentCount);
+        for (IndexedDocument document : documents) {
+            writeString(document.url());
+            writeString(document.site());
+            Varints.write(out, document.crawledAtMillis());
+        }
+        position = out.size();
+    }
+
+    /**
+     * Adds a term with its postings, given as parallel arrays of ascending document ids and counts.
+     */
+    void addTerm(int termOrder, byte[] key, int keyLength, int[] documents, int[] counts, int postingCount)
+            throws IOException {
+        if (termOrder != order) {
+            startOrders(termOrder);
+        }
+
+        int shared = 0;
+        int max = Math.min(keyLength, previousKeyLength);
+        while (shared < max && key[shared] == previousKey[shared]) {
+            shared++;
+        }
+        postings.reset();
+        int previousDocument = 0;
+        for (int i = 0; i < postingCount; i++) {
+            postings.varint(documents[i] - previousDocument);
+            postings.varint(counts[i]);
+            previousDocument = documents[i];
+        }
+
+        long start = out.size();
+        Varints.write(out, shared);
+        Varints.write(out, keyLength - shared);
+        out.write(key, shared, keyLength - shared);
+        Varints.write(out, postingCount);
+        Varints.write(out, postings.size());
+        out.write(postings.bytes(), 0, postings.size());
+        position += out.size() - start;
+
+        if (previousKey.length < keyLength) {
+            previousKey = new byte[Math.max(keyLength, previousKey.length * 2)];
+        }
+        System.arraycopy(key, 0, previousKey, 0, keyLength);
+        previousKeyLength = keyLength;
+    }
+
+    void finish() throws IOException {
+        startOrders(NGramKeys.MAX_ORDER + 1);
+        for (int i = 1; i <= NGramKeys.MAX_ORDER; i++) {
+            out.writeLong(sectionStarts[i]);
+        }
+        out.writeLong(position);
+        out.writeInt(MAGIC);
+        out.close();
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (finished) return;
+
+        out.close();
+        Files.deleteIfExists(temporary);
+    }
+
+    private void startOrders(int nextOrder) {
+        for (int skipped = order + 1; skipped <= Math.min(nextOrder, NGramKeys.MAX_ORDER); skipped++) {
+            sectionStarts[skipped] = position;
+        }
+        order = nextOrder;
+        previousKeyLength = 0;
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        Varints.write(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Postings are encoded here first so their length can precede them.
+     */
+    private static final class PostingsBuffer {
+
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void varint(long value) {
+            if (size + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Unsigned LEB128 variable-length integers: seven bits per byte, low bits first, high bit set on every byte
+ * but the last. Small counts and deltas take one byte.
+ */
+public final class Varints {
+
+    private Varints() {
+    }
+
+    public static void write(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static long read(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    public static int readInt(ByteBuffer buffer) {
+        return (int) read(buffer);
+    }
+
+    public static long read(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    public static int readInt(DataInput in) throws IOException {
+        return (int) read(in);
+    }
+}
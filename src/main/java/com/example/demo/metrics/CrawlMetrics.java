@@ -0,0 +1,112 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the crawl pipeline. Meters are looked up once per tag value and kept, so recording
+ * costs a map lookup and an atomic add per page, never anything per token. Host tags are capped at
+ * {@link #MAX_HOSTS} distinct hosts; further hosts are recorded as {@code other}.
+ *
+ * <ul>
+ *     <li>{@code ngram.fetch} (timer, download and parsing, which overlap) and {@code ngram.fetch.bytes}
+ *     (summary) by {@code host} and {@code outcome}</li>
+ *     <li>{@code ngram.extract} and {@code ngram.tokenize} (timers), {@code ngram.tokens} (counter; its rate is
+ *     tokens per second)</li>
+ *     <li>{@code ngram.crawl} (timer, by {@code partial}), {@code ngram.crawl.pages} and
+ *     {@code ngram.crawl.distinct} (summaries, the latter by {@code order})</li>
+ *     <li>{@code ngram.pages.skipped} (counter, by {@code reason})</li>
+ * </ul>
+ */
+@Component
+public class CrawlMetrics {
+
+    public static final int MAX_HOSTS = 200;
+    private static final String OTHER_HOST = "other";
+
+    private final MeterRegistry registry;
+    private final Map<String, HostMeters> hosts = new ConcurrentHashMap<>();
+    private final Map<String, Counter> skipped = new ConcurrentHashMap<>();
+    private final Map<Integer, DistributionSummary> distinct = new ConcurrentHashMap<>();
+    private final Timer extract;
+    private final Timer tokenize;
+    private final Counter tokens;
+    private final Timer completeCrawls;
+    private final Timer partialCrawls;
+    private final DistributionSummary crawlPages;
+
+    public CrawlMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.extract = Timer.builder("ngram.extract").description("Picking the content and links of a parsed page")
+                .register(registry);
+        this.tokenize = Timer.builder("ngram.tokenize").description("Tokenizing and counting the text of a page")
+                .register(registry);
+        this.tokens = Counter.builder("ngram.tokens").description("Tokens read from page text")
+                .register(registry);
+        this.completeCrawls = Timer.builder("ngram.crawl").tag("partial", "false").register(registry);
+        this.partialCrawls = Timer.builder("ngram.crawl").tag("partial", "true").register(registry);
+        this.crawlPages = DistributionSummary.builder("ngram.crawl.pages").description("Pages counted per crawl")
+                .register(registry);
+    }
+
+    public void fetched(String host, String outcome, long nanos, long bytes) {
+        HostMeters meters = hosts.get(host);
+        if (meters == null) {
+            meters = hosts.computeIfAbsent(hosts.size() < MAX_HOSTS ? host : OTHER_HOST, HostMeters::new);
+        }
+        meters.fetch(outcome).record(nanos, TimeUnit.NANOSECONDS);
+        if (bytes > 0) {
+            meters.bytes.record(bytes);
+        }
+    }
+
+    public void extracted(long nanos) {
+        extract.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tokenized(long nanos, long tokenCount) {
+        tokenize.record(nanos, TimeUnit.NANOSECONDS);
+        tokens.increment(tokenCount);
+    }
+
+    public void skipped(String reason) {
+        skipped.computeIfAbsent(reason, tag -> Counter.builder("ngram.pages.skipped").tag("reason", tag)
+                .description("Pages not counted, by reason").register(registry)).increment();
+    }
+
+    public void crawled(long nanos, int pages, boolean partial) {
+        (partial ? partialCrawls : completeCrawls).record(nanos, TimeUnit.NANOSECONDS);
+        crawlPages.record(pages);
+    }
+
+    public void distinctNGrams(int order, int count) {
+        distinct.computeIfAbsent(order, tag -> DistributionSummary.builder("ngram.crawl.distinct")
+                .tag("order", String.valueOf(tag)).description("Distinct n-grams counted per crawl")
+                .register(registry)).record(count);
+    }
+
+    private final class HostMeters {
+
+        private final String host;
+        private final Map<String, Timer> fetches = new ConcurrentHashMap<>();
+        private final DistributionSummary bytes;
+
+        private HostMeters(String host) {
+            this.host = host;
+            this.bytes = DistributionSummary.builder("ngram.fetch.bytes").tag("host", host).baseUnit("bytes")
+                    .register(registry);
+        }
+
+        private Timer fetch(String outcome) {
+            return fetches.computeIfAbsent(outcome, tag -> Timer.builder("ngram.fetch").tag("host", host)
+                    .tag("outcome", tag).register(registry));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * Body of a batch job submission. Everything but {@code urls} is optional; budget fields override the
+ * configured crawl budget for every seed.
+ */
+public record BatchRequest(List<String> urls, List<Integer> n, boolean approx, Integer maxPages, Integer maxDepth,
+                           Long fetchTimeoutMs, Long deadlineMs) {
+}
@@ -0,0 +1,18 @@
+package com.example.demo.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of a batch job. {@code corpus} holds the top n-grams over every page counted so far by any of the
+ * job's seeds.
+ */
+public record BatchStatus(String id, State state, int seeds, int completedSeeds, List<SeedResult> results,
+                          Map<Integer, List<Map.Entry<String, Integer>>> corpus) {
+
+    public enum State {
+        RUNNING,
+        DONE,
+        CANCELLED
+    }
+}
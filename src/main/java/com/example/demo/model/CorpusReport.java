@@ -0,0 +1,13 @@
+package com.example.demo.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top n-grams per order of an offline corpus. {@code skipped} counts files and archive records that held no
+ * countable document or could not be read.
+ */
+public record CorpusReport(String path, int documents, int skipped, long bytes,
+                           Map<Integer, List<Map.Entry<String, Integer>>> ngrams, boolean approximate,
+                           Map<Integer, Long> errorBounds, long elapsedMillis) {
+}
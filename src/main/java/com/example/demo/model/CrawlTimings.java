@@ -0,0 +1,13 @@
+package com.example.demo.model;
+
+import java.util.Map;
+
+/**
+ * Where one crawl spent its time. Page phases are summed over all pages, which are crawled concurrently, so
+ * together they may exceed {@code totalMillis}. {@code fetchMillis} covers the page cache, the network and HTML
+ * parsing; {@code countMillis} tokenizing and counting; {@code mergeMillis} adding page counts to the crawl's
+ * totals. {@code skipped} counts pages not counted, by reason.
+ */
+public record CrawlTimings(double totalMillis, double fetchMillis, double countMillis, double mergeMillis,
+                           long tokens, Map<String, Long> skipped) {
+}
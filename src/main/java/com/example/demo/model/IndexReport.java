@@ -0,0 +1,10 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * Top n-grams of one order from the index. {@code documents} is the number of indexed pages that matched the
+ * filters, out of {@code liveDocuments} in the whole index.
+ */
+public record IndexReport(int n, String scoring, int documents, int liveDocuments, List<IndexedNGram> ngrams) {
+}
@@ -0,0 +1,8 @@
+package com.example.demo.model;
+
+/**
+ * An n-gram ranked by the index: its occurrences in the matching pages, the number of indexed pages containing
+ * it and the score it was ranked by.
+ */
+public record IndexedNGram(String nGram, long count, int documentFrequency, double score) {
+}
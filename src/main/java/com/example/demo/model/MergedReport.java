@@ -0,0 +1,12 @@
+package com.example.demo.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top n-grams per order over the merged partial counts of {@code partials} shards. When any of them was
+ * approximate, each count may exceed the true count by at most the order's entry in {@code errorBounds}.
+ */
+public record MergedReport(int partials, Map<Integer, List<Map.Entry<String, Integer>>> ngrams, boolean approximate,
+                           Map<Integer, Long> errorBounds) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.model;
+
+import java.util.List;
+import java.util.Map;
+
+public record NGramProgress(String pageUrl, int pagesCrawled, Map<Integer, List<Map.Entry<String, Integer>>> ngrams) {
+}
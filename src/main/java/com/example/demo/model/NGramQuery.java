@@ -0,0 +1,45 @@
+package com.example.demo.model;
+
+import com.example.demo.counting.NGramKeys;
+import com.example.demo.crawl.CrawlBudget;
+import com.example.demo.crawl.UrlNormalizer;
+
+import java.util.List;
+
+/**
+ * One n-gram extraction. A {@code null} budget stands for the configured default budget.
+ */
+public record NGramQuery(String url, List<Integer> orders, boolean approximate, CrawlBudget budget) {
+
+    public static final int MAX_ORDER = NGramKeys.MAX_ORDER;
+
+    public NGramQuery {
+        if (UrlNormalizer.normalize(url) == null) {
+            throw new IllegalArgumentException("Not an http(s) URL: " + url);
+        }
+        orders = orders(orders);
+    }
+
+    public NGramQuery(String url, List<Integer> orders, boolean approximate) {
+        this(url, orders, approximate, null);
+    }
+
+    public NGramQuery(String url, List<Integer> orders) {
+        this(url, orders, false);
+    }
+
+    /**
+     * Sorts and deduplicates n-gram orders, checking that they are between 1 and {@link #MAX_ORDER}.
+     */
+    public static List<Integer> orders(List<Integer> orders) {
+        List<Integer> sorted = orders.stream().distinct().sorted().toList();
+        if (sorted.isEmpty() || sorted.get(0) < 1 || sorted.get(sorted.size() - 1) > MAX_ORDER) {
+            throw new IllegalArgumentException("N-gram orders must be between 1 and " + MAX_ORDER + ": " + sorted);
+        }
+        return sorted;
+    }
+
+    public int maxOrder() {
+        return orders.get(orders.size() - 1);
+    }
+}
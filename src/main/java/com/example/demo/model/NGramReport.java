@@ -0,0 +1,18 @@
+package com.example.demo.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top n-grams per order of one crawl. In approximate mode each count may exceed the true count by at most
+ * the order's entry in {@code errorBounds}. A partial report is what had been counted when the crawl's
+ * deadline passed. {@code timings} breaks down the crawl that computed it, when known.
+ */
+public record NGramReport(String url, int pagesCrawled, Map<Integer, List<Map.Entry<String, Integer>>> ngrams,
+                          boolean approximate, Map<Integer, Long> errorBounds, boolean partial, CrawlTimings timings) {
+
+    public NGramReport(String url, int pagesCrawled, Map<Integer, List<Map.Entry<String, Integer>>> ngrams,
+                       boolean approximate, Map<Integer, Long> errorBounds, boolean partial) {
+        this(url, pagesCrawled, ngrams, approximate, errorBounds, partial, null);
+    }
+}
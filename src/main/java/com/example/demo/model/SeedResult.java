@@ -0,0 +1,7 @@
+package com.example.demo.model;
+
+/**
+ * Outcome of one seed of a batch job: its report, or the reason it failed.
+ */
+public record SeedResult(String url, NGramReport report, String error) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.model;
+
+/**
+ * This instance's place in a sharded deployment and, when a URL was given, the shard that crawls it.
+ */
+public record ShardInfo(int index, int count, Integer owner) {
+}
@@ -0,0 +1,60 @@
+package com.example.demo.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Ends a stream after {@code limit} bytes and counts the bytes read, so a body can be parsed as it arrives
+ * without first being copied into an array.
+ */
+final class BoundedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count;
+
+    BoundedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    long count() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (count >= limit) return -1;
+
+        int b = super.read();
+        if (b >= 0) count++;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (count >= limit) return -1;
+
+        int read = super.read(bytes, offset, (int) Math.min(length, limit - count));
+        if (read > 0) count += read;
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(Math.min(n, limit - count));
+        count += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(super.available(), limit - count);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ContentProperties;
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+import org.jsoup.select.QueryParser;
+import org.springframework.stereotype.Service;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Picks the text of a parsed page that is worth counting. In {@link ContentProperties.Mode#MAIN main} mode
+ * that is the element matched by the configured selectors, or else the block whose paragraphs hold the most
+ * text (the parent of the paragraphs scoring their full length and the grandparent half of it), less the
+ * excluded selectors and any list, table or block made mostly of links. Text is written straight out of the
+ * DOM, with whitespace collapsed the way {@link Element#text()} does, and stops at the configured length.
+ */
+@Service
+public class ContentExtractor {
+
+    private static final int MIN_PARAGRAPH_LENGTH = 25;
+    private static final Set<String> PARAGRAPHS = Set.of("p", "pre", "blockquote", "td");
+    private static final Set<String> LINK_CONTAINERS = Set.of("ul", "ol", "dl", "table", "div", "section", "p");
+    private static final int[] NO_TEXT = new int[2];
+
+    private final ContentProperties properties;
+    private final List<Evaluator> selectors;
+    private final Evaluator excluded;
+
+    public ContentExtractor(ContentProperties properties) {
+        this.properties = properties;
+        this.selectors = properties.getSelectors().stream().map(QueryParser::parse).toList();
+        this.excluded = properties.getExcludeSelectors().isEmpty()
+                ? null
+                : QueryParser.parse(String.join(", ", properties.getExcludeSelectors()));
+    }
+
+    public String text(Document document) {
+        StringBuilder text = new StringBuilder();
+        extract(document, new TextWriter() {
+            @Override
+            boolean text(String chunk) {
+                StringUtil.appendNormalisedWhitespace(text, chunk, text.isEmpty() || endsWithSpace(text));
+                if (text.length() < properties.getMaxTextLength()) return true;
+
+                text.setLength(properties.getMaxTextLength());
+                return false;
+            }
+
+            @Override
+            void separator() {
+                if (!text.isEmpty() && !endsWithSpace(text)) text.append(' ');
+            }
+        });
+        if (endsWithSpace(text)) text.setLength(text.length() - 1);
+        return text.toString();
+    }
+
+    /**
+     * Feeds the same text as {@link #text(Document)} to a tokenizer, without building it into a string.
+     */
+    public void tokenize(Document document, TextTokenizer.TokenSink sink) {
+        TextTokenizer.Scanner scanner = new TextTokenizer.Scanner(sink);
+        extract(document, new TextWriter() {
+            private int remaining = properties.getMaxTextLength();
+
+            @Override
+            boolean text(String chunk) {
+                if (chunk.length() < remaining) {
+                    scanner.feed(chunk);
+                    remaining -= chunk.length();
+                    return true;
+                }
+                scanner.feed(chunk.subSequence(0, remaining));
+                return false;
+            }
+
+            @Override
+            void separator() {
+                scanner.feed(" ");
+            }
+        });
+        scanner.finish();
+    }
+
+    private void extract(Document document, TextWriter writer) {
+        if (properties.getMode() == ContentProperties.Mode.FULL || document.body() == null) {
+            NodeTraversor.filter(new TextFilter(writer, null, null), document);
+            return;
+        }
+
+        Measurement measurement = new Measurement(document.body());
+        NodeTraversor.traverse(measurement, document.body());
+        NodeTraversor.filter(new TextFilter(writer, document.body(), measurement.lengths), mainContent(measurement));
+    }
+
+    private Element mainContent(Measurement measurement) {
+        for (Element longest : measurement.longest) {
+            if (longest != null && measurement.textLength(longest) >= properties.getMinTextLength()) return longest;
+        }
+
+        Element best = measurement.root;
+        double bestScore = 0;
+        for (Map.Entry<Element, Double> candidate : measurement.scores.entrySet()) {
+            int[] length = measurement.lengths.getOrDefault(candidate.getKey(), NO_TEXT);
+            double score = candidate.getValue() * (1 - (double) length[1] / Math.max(1, length[0]));
+            if (score > bestScore) {
+                best = candidate.getKey();
+                bestScore = score;
+            }
+        }
+        return bestScore >= properties.getMinTextLength() ? best : measurement.root;
+    }
+
+    private boolean isLinkDense(int[] length) {
+        return length[0] > 0 && length[1] > properties.getMaxLinkDensity() * length[0];
+    }
+
+    /**
+     * One pass over the page from the leaves up: characters of text under each element and how many of them
+     * are link text, the longest match of each selector, and the paragraph scores of the candidate blocks.
+     */
+    private final class Measurement implements NodeVisitor {
+
+        private final Element root;
+        private final Map<Element, int[]> lengths = new IdentityHashMap<>();
+        private final Element[] longest = new Element[selectors.size()];
+        private final Map<Element, Double> scores = new IdentityHashMap<>();
+
+        private Measurement(Element root) {
+            this.root = root;
+        }
+
+        private int textLength(Element element) {
+            return lengths.getOrDefault(element, NO_TEXT)[0];
+        }
+
+        @Override
+        public void head(Node node, int depth) {
+        }
+
+        @Override
+        public void tail(Node node, int depth) {
+            if (node instanceof Element element) {
+                int[] length = lengths.getOrDefault(element, NO_TEXT);
+                if (length[0] == 0) return;
+
+                for (int i = 0; i < longest.length; i++) {
+                    if ((longest[i] == null || length[0] > textLength(longest[i]))
+                            && selectors.get(i).matches(root, element)) {
+                        longest[i] = element;
+                    }
+                }
+                if (element == root) return;
+
+                Element parent = element.parent();
+                if (PARAGRAPHS.contains(element.normalName()) && length[0] >= MIN_PARAGRAPH_LENGTH
+                        && !isLinkDense(length)) {
+                    scores.merge(parent, (double) length[0], Double::sum);
+                    if (parent != root && parent.parent() != null) {
+                        scores.merge(parent.parent(), length[0] / 2.0, Double::sum);
+                    }
+                }
+                add(parent, length[0], element.normalName().equals("a") ? length[0] : length[1]);
+            } else if (node instanceof TextNode text && node.parentNode() instanceof Element parent) {
+                String wholeText = text.getWholeText();
+                if (!StringUtil.isBlank(wholeText)) {
+                    add(parent, wholeText.length(), 0);
+                }
+            }
+        }
+
+        private void add(Element element, int text, int links) {
+            int[] length = lengths.get(element);
+            if (length == null) {
+                length = new int[2];
+                lengths.put(element, length);
+            }
+            length[0] += text;
+            length[1] += links;
+        }
+    }
+
+    private static boolean endsWithSpace(StringBuilder text) {
+        return !text.isEmpty() && text.charAt(text.length() - 1) == ' ';
+    }
+
+    private abstract static class TextWriter {
+
+        /**
+         * Writes the text of a text node; returns false once no more text is wanted.
+         */
+        abstract boolean text(String chunk);
+
+        abstract void separator();
+    }
+
+    private final class TextFilter implements NodeFilter {
+
+        private final TextWriter writer;
+        private final Element body;
+        private final Map<Element, int[]> lengths;
+
+        /**
+         * @param lengths the measured text lengths in main-content mode, where excluded and link-dense
+         *                elements are skipped; null to write every text node
+         */
+        private TextFilter(TextWriter writer, Element body, Map<Element, int[]> lengths) {
+            this.writer = writer;
+            this.body = body;
+            this.lengths = lengths;
+        }
+
+        @Override
+        public FilterResult head(Node node, int depth) {
+            if (node instanceof TextNode text) {
+                return writer.text(text.getWholeText()) ? FilterResult.CONTINUE : FilterResult.STOP;
+            }
+            if (node instanceof Element element) {
+                if (element.isBlock() || element.normalName().equals("br")) writer.separator();
+                if (lengths != null && depth > 0 && isSkipped(element)) return FilterResult.SKIP_ENTIRELY;
+            }
+            return FilterResult.CONTINUE;
+        }
+
+        @Override
+        public FilterResult tail(Node node, int depth) {
+            if (node instanceof Element element && element.isBlock()) writer.separator();
+            return FilterResult.CONTINUE;
+        }
+
+        private boolean isSkipped(Element element) {
+            int[] length = lengths.get(element);
+            return length == null
+                    || LINK_CONTAINERS.contains(element.normalName()) && isLinkDense(length)
+                    || excluded != null && excluded.matches(body, element);
+        }
+    }
+}
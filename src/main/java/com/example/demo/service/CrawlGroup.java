@@ -0,0 +1,13 @@
+package com.example.demo.service;
+
+import com.example.demo.counting.NGramAccumulator;
+
+import java.util.Set;
+
+/**
+ * Crawls of several seeds counted as one corpus. They share their visited pages, so a page reached from more
+ * than one seed is fetched and counted once, for whichever crawl gets to it first, and every counted page is
+ * also added to {@code corpus}.
+ */
+public record CrawlGroup(Set<String> seenUrls, NGramAccumulator corpus) {
+}
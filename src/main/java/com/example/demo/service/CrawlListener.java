@@ -0,0 +1,20 @@
+package com.example.demo.service;
+
+import com.example.demo.model.NGramProgress;
+
+import java.util.function.Supplier;
+
+/**
+ * Told each time a crawl has counted a page, with the number of pages counted so far. Called from the crawl's
+ * worker threads, possibly concurrently. {@code progress} ranks the running top n-grams only when it is called,
+ * on the calling thread, so a listener that keeps just the latest progress pays for the snapshots it uses and
+ * no ranking is done on the workers.
+ */
+@FunctionalInterface
+public interface CrawlListener {
+
+    CrawlListener NONE = (pagesCrawled, progress) -> {
+    };
+
+    void pageCrawled(int pagesCrawled, Supplier<NGramProgress> progress);
+}
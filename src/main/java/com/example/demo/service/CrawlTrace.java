@@ -0,0 +1,54 @@
+package com.example.demo.service;
+
+import com.example.demo.model.CrawlTimings;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-crawl accumulators behind {@link CrawlTimings}, updated concurrently by the crawl's page tasks.
+ */
+final class CrawlTrace {
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder fetchNanos = new LongAdder();
+    private final LongAdder countNanos = new LongAdder();
+    private final LongAdder mergeNanos = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final Map<String, LongAdder> skipped = new ConcurrentHashMap<>();
+
+    void fetched(long nanos) {
+        fetchNanos.add(nanos);
+    }
+
+    void counted(long nanos, long tokenCount) {
+        countNanos.add(nanos);
+        tokens.add(tokenCount);
+    }
+
+    void merged(long nanos) {
+        mergeNanos.add(nanos);
+    }
+
+    void skipped(String reason) {
+        skipped.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    CrawlTimings timings() {
+        Map<String, Long> skippedPages = new TreeMap<>();
+        skipped.forEach((reason, count) -> skippedPages.put(reason, count.sum()));
+        return new CrawlTimings(millis(elapsedNanos()), millis(fetchNanos.sum()), millis(countNanos.sum()),
+                millis(mergeNanos.sum()), tokens.sum(), skippedPages);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
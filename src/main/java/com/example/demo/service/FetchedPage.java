@@ -0,0 +1,14 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+/**
+ * A fetched page as the crawl keeps it: its content text and outgoing links, not the parsed document.
+ */
+public record FetchedPage(String url, String finalUrl, int status, int bodySize, String text, List<String> links,
+                          String etag, String lastModified) {
+
+    public boolean isNotModified() {
+        return status == 304;
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.PageCache;
+import com.example.demo.config.CrawlProperties;
+import com.example.demo.counting.HeavyHittersAggregator;
+import com.example.demo.counting.IncrementalAggregator;
+import com.example.demo.counting.NGramAccumulator;
+import com.example.demo.counting.NGramAggregator;
+import com.example.demo.counting.NGramCounts;
+import com.example.demo.crawl.CrawlBudget;
+import com.example.demo.crawl.CrawlFrontier;
+import com.example.demo.crawl.CrawlTask;
+import com.example.demo.crawl.UrlNormalizer;
+import com.example.demo.index.NGramIndex;
+import com.example.demo.metrics.CrawlMetrics;
+import com.example.demo.model.CrawlTimings;
+import com.example.demo.model.NGramProgress;
+import com.example.demo.model.NGramQuery;
+import com.example.demo.model.NGramReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Crawls a site once and counts every requested n-gram order from the same tokenized text of each page.
+ * The crawl stays within the query's {@link CrawlBudget}; when its deadline passes, outstanding page tasks
+ * are cancelled and the report is built from the pages counted so far and flagged as partial; pages whose
+ * tasks were still running by then are not counted anywhere, so the report, the index and a batch corpus
+ * agree. When the {@link NGramIndex} is enabled, each page is counted in every order and also handed to it.
+ *
+ * <p>Every report carries the crawl's {@link CrawlTimings}, and the same phases feed
+ * {@link CrawlMetrics}, along with the reason of every page that was not counted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NGramEngine {
+
+    public static final int TOP_LIMIT = 20;
+
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int HEAVY_HITTERS_CAPACITY = 10_000;
+
+    private final PageCache pageCache;
+    private final ExecutorService crawlExecutor;
+    private final CrawlProperties crawlProperties;
+    private final NGramIndex nGramIndex;
+    private final CrawlMetrics crawlMetrics;
+
+    public NGramReport extract(NGramQuery query) {
+        return extract(query, CrawlListener.NONE);
+    }
+
+    /**
+     * Like {@link #extract(NGramQuery)}, also handing {@code listener} the running top n-grams after each page.
+     */
+    public NGramReport extract(NGramQuery query, CrawlListener listener) {
+        return extract(query, listener, null);
+    }
+
+    /**
+     * Crawls {@code query} as part of {@code group}, or on its own when {@code group} is {@code null}.
+     */
+    public NGramReport extract(NGramQuery query, CrawlListener listener, CrawlGroup group) {
+        CrawlTrace trace = new CrawlTrace();
+        CrawlBudget budget = query.budget() != null ? query.budget() : crawlProperties.defaultBudget();
+        long deadline = System.nanoTime() + budget.deadline().toNanos();
+        CrawlFrontier frontier = group == null
+                ? new CrawlFrontier(query.url(), budget.maxPages(), budget.maxDepth())
+                : new CrawlFrontier(query.url(), budget.maxPages(), budget.maxDepth(), group.seenUrls());
+        List<Future<?>> tasks = new ArrayList<>();
+        boolean partial = false;
+        PageCounter pageCounter = new PageCounter();
+        int maxConcurrency = crawlProperties.getMaxConcurrencyPerCrawl();
+        Semaphore crawlSlots = new Semaphore(maxConcurrency);
+        NGramAccumulator accumulator;
+        if (query.approximate()) {
+            accumulator = new HeavyHittersAggregator(query.orders(), HEAVY_HITTERS_CAPACITY);
+        } else if (listener != CrawlListener.NONE) {
+            accumulator = new IncrementalAggregator(query.orders(), TOP_LIMIT);
+        } else {
+            accumulator = new NGramAggregator(query.orders(), maxConcurrency);
+        }
+
+        try {
+            while (!frontier.isDone()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    partial = true;
+                    break;
+                }
+                CrawlTask task = frontier.poll(Math.min(remaining, POLL_INTERVAL_NANOS), TimeUnit.NANOSECONDS);
+                if (task == null) continue;
+
+                if (!crawlSlots.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    partial = true;
+                    break;
+                }
+                try {
+                    tasks.add(crawlExecutor.submit(() -> {
+                        try {
+                            int crawled = crawlPage(task, frontier, budget, query.orders(), accumulator, group,
+                                    pageCounter, trace);
+                            if (crawled > 0 && listener != CrawlListener.NONE) {
+                                listener.pageCrawled(crawled, () -> new NGramProgress(task.url(), crawled,
+                                        topNGrams(query.orders(), accumulator)));
+                            }
+                        } catch (InterruptedException e) {
+                            skipped(trace, "cancelled");
+                            Thread.currentThread().interrupt();
+                        } catch (PageSkippedException e) {
+                            skipped(trace, e.reason());
+                            log.debug("Skipped {}: {}", task.url(), e.getMessage());
+                        } catch (HttpTimeoutException e) {
+                            skipped(trace, "timeout");
+                            log.debug("Timed out fetching {}", task.url());
+                        } catch (IOException e) {
+                            skipped(trace, "io");
+                            log.debug("Could not fetch {}: {}", task.url(), e.toString());
+                        } catch (Exception e) {
+                            skipped(trace, "error");
+                            log.warn("Failed to crawl {}", task.url(), e);
+                        } finally {
+                            crawlSlots.release();
+                            frontier.complete(task);
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    skipped(trace, "rejected");
+                    log.debug("Crawl executor rejected {}", task.url());
+                    crawlSlots.release();
+                    frontier.complete(task);
+                }
+            }
+        } catch (InterruptedException e) {
+            partial = true;
+            Thread.currentThread().interrupt();
+        }
+        if (partial) {
+            tasks.forEach(task -> task.cancel(true));
+        }
+        int pagesCrawled = pageCounter.close();
+
+        Map<Integer, Long> errorBounds = new TreeMap<>();
+        for (int order : query.orders()) {
+            errorBounds.put(order, accumulator.errorBound(order));
+            crawlMetrics.distinctNGrams(order, accumulator.distinct(order));
+        }
+        Map<Integer, List<Map.Entry<String, Integer>>> topNGrams = topNGrams(query.orders(), accumulator);
+        crawlMetrics.crawled(trace.elapsedNanos(), pagesCrawled, partial);
+        CrawlTimings timings = trace.timings();
+        log.debug("Crawled {}: {} pages, partial={}, {}", query.url(), pagesCrawled, partial, timings);
+        return new NGramReport(query.url(), pagesCrawled, topNGrams, query.approximate(), errorBounds,
+                partial, timings);
+    }
+
+    private Map<Integer, List<Map.Entry<String, Integer>>> topNGrams(List<Integer> orders, NGramAccumulator accumulator) {
+        Map<Integer, List<Map.Entry<String, Integer>>> topNGrams = new TreeMap<>();
+        for (int order : orders) {
+            topNGrams.put(order, accumulator.top(order, TOP_LIMIT));
+        }
+        return topNGrams;
+    }
+
+    private void skipped(CrawlTrace trace, String reason) {
+        trace.skipped(reason);
+        crawlMetrics.skipped(reason);
+    }
+
+    /**
+     * Fetches and counts one page and queues its links. Returns the page's number among the pages counted by
+     * the crawl, or 0 if it was not counted.
+     */
+    private int crawlPage(CrawlTask task, CrawlFrontier frontier, CrawlBudget budget, List<Integer> orders,
+                          NGramAccumulator accumulator, CrawlGroup group, PageCounter pageCounter, CrawlTrace trace)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        PageContent page = pageCache.get(task.url(), budget.fetchTimeout());
+        long fetched = System.nanoTime();
+        trace.fetched(fetched - start);
+        if (!frontier.resolve(task, page.finalUrl())) {
+            skipped(trace, "duplicate");
+            return 0;
+        }
+
+        String canonicalUrl = UrlNormalizer.normalize(page.finalUrl());
+        boolean indexed = nGramIndex.isEnabled() && canonicalUrl != null;
+        NGramCounts pageCounts = new NGramCounts(indexed ? nGramIndex.orders() : orders);
+        TokenCountingSink sink = new TokenCountingSink(pageCounts);
+        TextTokenizer.tokenize(page.text(), sink);
+        long counted = System.nanoTime();
+        trace.counted(counted - fetched, sink.tokens);
+        crawlMetrics.tokenized(counted - fetched, sink.tokens);
+
+        int pageNumber = pageCounter.count(() -> {
+            accumulator.add(pageCounts);
+            if (indexed) {
+                nGramIndex.add(canonicalUrl, pageCounts);
+            }
+            if (group != null) {
+                group.corpus().add(pageCounts);
+            }
+        });
+        if (pageNumber == 0) {
+            skipped(trace, "cancelled");
+            return 0;
+        }
+        trace.merged(System.nanoTime() - counted);
+
+        int linksQueued = 0;
+        for (String link : page.links()) {
+            if (linksQueued >= crawlProperties.getMaxLinksPerPage() || !frontier.hasPageBudget()) break;
+            if (frontier.offer(link, task.depth() + 1)) {
+                linksQueued++;
+            }
+        }
+        return pageNumber;
+    }
+
+    /**
+     * Lets the pages of one crawl be counted concurrently until its report is built. Closing waits for the
+     * pages being counted and turns away every later one, such as a page whose task was cancelled at the
+     * deadline while it was being fetched.
+     */
+    private static final class PageCounter {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final AtomicInteger pages = new AtomicInteger();
+        private boolean closed;
+
+        /**
+         * Runs {@code counting} and returns the page's number, or 0 without running it once closed.
+         */
+        private int count(Runnable counting) {
+            lock.readLock().lock();
+            try {
+                if (closed) return 0;
+
+                counting.run();
+                return pages.incrementAndGet();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Stops counting and returns the number of pages counted.
+         */
+        private int close() {
+            lock.writeLock().lock();
+            try {
+                closed = true;
+                return pages.get();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Counts the tokens passed on to a page's {@link NGramCounts}, for tokens-per-second metrics.
+     */
+    private static final class TokenCountingSink implements TextTokenizer.TokenSink {
+
+        private final TextTokenizer.TokenSink target;
+        private long tokens;
+
+        private TokenCountingSink(TextTokenizer.TokenSink target) {
+            this.target = target;
+        }
+
+        @Override
+        public void token(char[] chars, int length, boolean term) {
+            tokens++;
+            target.token(chars, length, term);
+        }
+
+        @Override
+        public void end() {
+            target.end();
+        }
+    }
+}
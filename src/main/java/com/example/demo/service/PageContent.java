@@ -0,0 +1,35 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+/**
+ * What a crawl needs from a fetched page: its text, its outgoing links and the validators to revalidate it.
+ */
+public record PageContent(String url, String finalUrl, String text, List<String> links, String etag,
+                          String lastModified, long fetchedAtMillis) {
+
+    public static PageContent of(String url, FetchedPage page, long fetchedAtMillis) {
+        return new PageContent(url, page.finalUrl(), page.text(), page.links(), page.etag(), page.lastModified(),
+                fetchedAtMillis);
+    }
+
+    /**
+     * This content confirmed by a 304 Not Modified answer, taking the validators the answer carries.
+     */
+    public PageContent revalidated(FetchedPage notModified, long fetchedAtMillis) {
+        return new PageContent(url, finalUrl, text, links,
+                notModified.etag() != null ? notModified.etag() : etag,
+                notModified.lastModified() != null ? notModified.lastModified() : lastModified, fetchedAtMillis);
+    }
+
+    /**
+     * Approximate heap footprint, used to bound the cache.
+     */
+    public long sizeInBytes() {
+        long size = 256 + 2L * (url.length() + finalUrl.length() + text.length());
+        for (String link : links) {
+            size += 48 + 2L * link.length();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.demo.service;
+
+import com.example.demo.config.FetchProperties;
+import com.example.demo.metrics.CrawlMetrics;
+import jakarta.annotation.PreDestroy;
+import org.jsoup.Jsoup;
+import org.jsoup.UncheckedIOException;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Fetches pages for every crawl through one pooled {@link HttpClient}, so connections are kept alive and
+ * reused (over HTTP/2 where the server supports it). Bodies are requested compressed and parsed by Jsoup as
+ * they arrive, up to the configured size; only the text picked by {@link ContentExtractor} and the links
+ * outlive the parsed document. The fetch timeout covers the body as well as the headers: a body still arriving
+ * when it runs out is abandoned by closing its stream. Each host gets a bounded number of concurrent requests
+ * and a minimum interval between request starts. Fetch latency (download and parsing) and body size are
+ * recorded by host and outcome, and extraction time separately, in {@link CrawlMetrics}.
+ */
+@Service
+public class PageFetcher {
+
+    private static final int MAX_LINKS = 500;
+    private static final long LIMITER_SWEEP_INTERVAL_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final FetchProperties properties;
+    private final ContentExtractor contentExtractor;
+    private final CrawlMetrics metrics;
+    private final HttpClient httpClient;
+    private final ScheduledThreadPoolExecutor bodyDeadlines;
+    private final Map<String, HostLimiter> hostLimiters = new ConcurrentHashMap<>();
+    private final AtomicLong nextLimiterSweep = new AtomicLong(System.nanoTime() + LIMITER_SWEEP_INTERVAL_NANOS);
+
+    public PageFetcher(FetchProperties properties, ContentExtractor contentExtractor, CrawlMetrics metrics) {
+        this.properties = properties;
+        this.contentExtractor = contentExtractor;
+        this.metrics = metrics;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        this.bodyDeadlines = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "fetch-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        bodyDeadlines.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bodyDeadlines.shutdownNow();
+    }
+
+    public FetchedPage fetch(String url) throws IOException, InterruptedException {
+        return fetch(url, null, null, properties.getRequestTimeout());
+    }
+
+    /**
+     * Fetches {@code url} conditionally on the validators of a previously fetched copy, giving up after
+     * {@code timeout}. When the server answers 304 Not Modified the returned page has no text.
+     */
+    public FetchedPage fetch(String url, String etag, String lastModified, Duration timeout)
+            throws IOException, InterruptedException {
+        URI uri = URI.create(url);
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("User-Agent", properties.getUserAgent())
+                .header("Accept", "text/html,application/xhtml+xml,text/plain;q=0.9,*/*;q=0.1")
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET();
+        if (etag != null) {
+            requestBuilder.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            requestBuilder.header("If-Modified-Since", lastModified);
+        }
+        HttpRequest request = requestBuilder.build();
+
+        String host = uri.getHost();
+        HostLimiter limiter = hostLimiters.compute(host, (key, existing) -> {
+            HostLimiter retained = existing != null ? existing : new HostLimiter(
+                    properties.getMaxConnectionsPerHost(), properties.getMinRequestInterval().toNanos());
+            return retained.retain();
+        });
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            hostLimiters.computeIfPresent(host, (key, existing) -> existing.unretain());
+            throw e;
+        }
+        long start = System.nanoTime();
+        long fetchNanos = -1;
+        String outcome = "error";
+        long size = 0;
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            AtomicBoolean expired = new AtomicBoolean();
+            ScheduledFuture<?> abort = bodyDeadlines.schedule(() -> {
+                expired.set(true);
+                closeQuietly(response.body());
+            }, start + timeout.toNanos() - System.nanoTime(), TimeUnit.NANOSECONDS);
+            try (InputStream body = response.body()) {
+                int status = response.statusCode();
+                String finalUrl = response.uri().toString();
+                String responseEtag = response.headers().firstValue("ETag").orElse(null);
+                String responseLastModified = response.headers().firstValue("Last-Modified").orElse(null);
+                if (status == 304) {
+                    outcome = "not-modified";
+                    return new FetchedPage(url, finalUrl, status, 0, null, List.of(), responseEtag,
+                            responseLastModified);
+                }
+                if (status < 200 || status >= 300) {
+                    outcome = "http-error";
+                    throw new PageSkippedException("http-status", "HTTP " + status + " fetching " + url);
+                }
+
+                String contentType = response.headers().firstValue("Content-Type").orElse("");
+                if (!isTextual(contentType)) {
+                    outcome = "unsupported-type";
+                    throw new PageSkippedException("content-type",
+                            "Unsupported content type " + contentType + " fetching " + url);
+                }
+
+                String contentEncoding = response.headers().firstValue("Content-Encoding").orElse("");
+                Document document;
+                try (InputStream decoded = decode(contentEncoding, body)) {
+                    BoundedInputStream bounded = new BoundedInputStream(decoded, properties.getMaxBodySize().toBytes());
+                    document = Jsoup.parse(bounded, charset(contentType), finalUrl);
+                    size = bounded.count();
+                }
+                outcome = "ok";
+                long extractStart = System.nanoTime();
+                fetchNanos = extractStart - start;
+                String text = contentExtractor.text(document);
+                List<String> links = links(document);
+                metrics.extracted(System.nanoTime() - extractStart);
+                return new FetchedPage(url, finalUrl, status, (int) size, text, links, responseEtag,
+                        responseLastModified);
+            } catch (IOException | UncheckedIOException e) {
+                if (!expired.get()) throw e;
+
+                outcome = "timeout";
+                throw new HttpTimeoutException("Body of " + url + " not read within " + timeout);
+            } finally {
+                abort.cancel(false);
+            }
+        } finally {
+            limiter.release();
+            hostLimiters.computeIfPresent(host, (key, existing) -> existing.unretain());
+            sweepIdleLimiters();
+            metrics.fetched(host, outcome, fetchNanos >= 0 ? fetchNanos : System.nanoTime() - start, size);
+        }
+    }
+
+    /**
+     * Drops, at most once a minute, the limiters of hosts that no fetch is using and whose next request slot has
+     * passed, so a long-running crawler does not keep one for every host it ever fetched from.
+     */
+    private void sweepIdleLimiters() {
+        long now = System.nanoTime();
+        long next = nextLimiterSweep.get();
+        if (now - next < 0 || !nextLimiterSweep.compareAndSet(next, now + LIMITER_SWEEP_INTERVAL_NANOS)) return;
+
+        for (String host : hostLimiters.keySet()) {
+            hostLimiters.computeIfPresent(host, (key, limiter) -> limiter.isIdle(now) ? null : limiter);
+        }
+    }
+
+    private static List<String> links(Document document) {
+        Set<String> links = new LinkedHashSet<>();
+        for (Element link : document.select("a[href]")) {
+            String linkUrl = link.absUrl("href");
+            if (!linkUrl.isEmpty()) {
+                links.add(linkUrl);
+                if (links.size() == MAX_LINKS) break;
+            }
+        }
+        return new ArrayList<>(links);
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            // The fetch is abandoned either way.
+        }
+    }
+
+    /**
+     * Decodes a successful response's body. Only called once the status is known: the gzip header is read on the
+     * spot, and a 304 or error response may announce an encoding without carrying a body.
+     */
+    private InputStream decode(String contentEncoding, InputStream body) throws IOException {
+        return switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(body);
+            case "deflate" -> new InflaterInputStream(body);
+            default -> body;
+        };
+    }
+
+    private boolean isTextual(String contentType) {
+        String mimeType = contentType.toLowerCase(Locale.ROOT);
+        return mimeType.isEmpty() || mimeType.startsWith("text/") || mimeType.contains("xml");
+    }
+
+    private String charset(String contentType) {
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                return trimmed.substring(8).replace("\"", "").trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Connections and request pacing of one host. {@code users} counts the fetches holding it and is only
+     * changed inside the map's {@code compute} calls, so an idle limiter is never dropped while a fetch uses it.
+     */
+    private static final class HostLimiter {
+
+        private final Semaphore connections;
+        private final long minIntervalNanos;
+        private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+        private int users;
+
+        private HostLimiter(int maxConnections, long minIntervalNanos) {
+            this.connections = new Semaphore(maxConnections, true);
+            this.minIntervalNanos = minIntervalNanos;
+        }
+
+        /**
+         * Waits for this request's slot, then for a connection. The interval is waited out before a connection is
+         * taken, so a request waiting for its slot does not hold one of the host's connections meanwhile.
+         */
+        private void acquire() throws InterruptedException {
+            long now = System.nanoTime();
+            long slot = Math.max(now,
+                    nextSlot.getAndAccumulate(now, (next, time) -> Math.max(next, time) + minIntervalNanos));
+            TimeUnit.NANOSECONDS.sleep(slot - now);
+            connections.acquire();
+        }
+
+        private void release() {
+            connections.release();
+        }
+
+        private HostLimiter retain() {
+            users++;
+            return this;
+        }
+
+        private HostLimiter unretain() {
+            users--;
+            return this;
+        }
+
+        private boolean isIdle(long now) {
+            return users == 0 && nextSlot.get() - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+
+/**
+ * A page that was fetched but cannot be counted, such as an error status or a binary content type.
+ * {@link #reason()} is a short, stable tag for metrics.
+ */
+public class PageSkippedException extends IOException {
+
+    private final String reason;
+
+    public PageSkippedException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public String reason() {
+        return reason;
+    }
+}
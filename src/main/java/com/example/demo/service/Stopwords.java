@@ -0,0 +1,68 @@
+package com.example.demo.service;
+
+import java.text.Normalizer;
+import java.util.List;
+
+/**
+ * Portuguese (and a few English) stopwords, matched on their lower-cased, accent-folded form.
+ */
+public final class Stopwords {
+
+    private static final List<String> WORDS = List.of(
+            "a", "o", "e", "de", "em", "para", "com", "sem", "do", "da", "das", "dos", "no", "na", "se", "ao", "aos",
+            "à", "às", "pelo", "pela", "pelos", "pelas", "um", "uma", "uns", "umas", "que", "os", "as", "nos",
+            "esta", "está", "mais", "como", "ou", "sobre", "entre", "eles", "ela", "ele", "todas", "todos", "sua",
+            "seu", "suas", "seus", "por", "é", "ser", "estamos", "nós", "foi", "são", "the", "to", "and", "também",
+            "isso", "até", "pode", "podem", "essa", "esse", "essas", "esses", "não"
+    );
+
+    private static final int TABLE_SIZE = 256;
+    private static final String[] TABLE = new String[TABLE_SIZE];
+    static final int MAX_LENGTH;
+
+    static {
+        int maxLength = 0;
+        for (String word : WORDS) {
+            String folded = Normalizer.normalize(word, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            int slot = folded.hashCode() & (TABLE_SIZE - 1);
+            while (TABLE[slot] != null && !TABLE[slot].equals(folded)) {
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            TABLE[slot] = folded;
+            maxLength = Math.max(maxLength, folded.length());
+        }
+        MAX_LENGTH = maxLength;
+    }
+
+    private Stopwords() {
+    }
+
+    public static boolean contains(String foldedWord) {
+        return contains(foldedWord.toCharArray(), foldedWord.length());
+    }
+
+    /**
+     * Looks up the folded word held in {@code chars[0..length)} without creating a String.
+     */
+    public static boolean contains(char[] chars, int length) {
+        if (length > MAX_LENGTH) return false;
+
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        for (int slot = hash & (TABLE_SIZE - 1); TABLE[slot] != null; slot = (slot + 1) & (TABLE_SIZE - 1)) {
+            if (matches(TABLE[slot], chars, length)) return true;
+        }
+        return false;
+    }
+
+    private static boolean matches(String word, char[] chars, int length) {
+        if (word.length() != length) return false;
+
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != chars[i]) return false;
+        }
+        return true;
+    }
+}
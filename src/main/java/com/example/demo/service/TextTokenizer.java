@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * Splits page text into lower-cased tokens in a single pass over its characters. Letters and decimal digits
+ * form tokens, anything else separates them, and a lower-case letter followed by an upper-case one starts a
+ * new token (camel case). A token is a term, usable inside an n-gram, when it has at least three characters,
+ * no digits and its accent-folded form is not a stopword; any other token breaks n-gram windows.
+ *
+ * <p>Tokens are handed to a {@link TokenSink} as a reused character buffer, so tokenizing allocates nothing
+ * per token.
+ */
+public final class TextTokenizer {
+
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final char[] FOLDED = new char[0x2000];
+
+    static {
+        for (char c = 0; c < FOLDED.length; c++) {
+            String folded = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            FOLDED[c] = folded.length() == 1 ? folded.charAt(0) : c;
+        }
+    }
+
+    @FunctionalInterface
+    public interface TokenSink {
+
+        /**
+         * Receives the lower-cased token in {@code chars[0..length)}. The buffer is reused for the next token.
+         */
+        void token(char[] chars, int length, boolean term);
+
+        /**
+         * Called when the text ends; the next token does not follow the previous one.
+         */
+        default void end() {
+        }
+    }
+
+    private TextTokenizer() {
+    }
+
+    public static void tokenize(CharSequence text, TokenSink sink) {
+        Scanner scanner = new Scanner(sink);
+        scanner.feed(text);
+        scanner.finish();
+    }
+
+    public static char fold(char c) {
+        return c < FOLDED.length ? FOLDED[c] : c;
+    }
+
+    /**
+     * Tokenizer state for text that arrives in pieces. A token may span consecutive {@link #feed} calls; it is
+     * only emitted once a separator or {@link #finish()} ends it.
+     */
+    public static final class Scanner {
+
+        private final TokenSink sink;
+        private final char[] folded = new char[Stopwords.MAX_LENGTH];
+        private char[] token = new char[32];
+        private int length;
+        private boolean hasDigit;
+        private boolean previousLowerCase;
+
+        public Scanner(TokenSink sink) {
+            this.sink = sink;
+        }
+
+        public void feed(CharSequence text) {
+            for (int i = 0, n = text.length(); i < n; i++) {
+                char c = text.charAt(i);
+                int type = Character.getType(c);
+                switch (type) {
+                    case Character.UPPERCASE_LETTER -> {
+                        if (previousLowerCase) emit();
+                        append(Character.toLowerCase(c));
+                        previousLowerCase = false;
+                    }
+                    case Character.LOWERCASE_LETTER -> {
+                        append(c);
+                        previousLowerCase = true;
+                    }
+                    case Character.TITLECASE_LETTER, Character.MODIFIER_LETTER, Character.OTHER_LETTER -> {
+                        append(Character.toLowerCase(c));
+                        previousLowerCase = false;
+                    }
+                    case Character.DECIMAL_DIGIT_NUMBER -> {
+                        append(c);
+                        hasDigit = true;
+                        previousLowerCase = false;
+                    }
+                    default -> {
+                        emit();
+                        previousLowerCase = false;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Ends the current token and the text.
+         */
+        public void finish() {
+            emit();
+            previousLowerCase = false;
+            sink.end();
+        }
+
+        private void append(char c) {
+            if (length == token.length) {
+                token = Arrays.copyOf(token, length * 2);
+            }
+            token[length++] = c;
+        }
+
+        private void emit() {
+            if (length == 0) return;
+
+            sink.token(token, length, isTerm());
+            length = 0;
+            hasDigit = false;
+        }
+
+        private boolean isTerm() {
+            if (length < MIN_TERM_LENGTH || hasDigit) return false;
+            if (length > Stopwords.MAX_LENGTH) return true;
+
+            for (int i = 0; i < length; i++) {
+                folded[i] = fold(token[i]);
+            }
+            return !Stopwords.contains(folded, length);
+        }
+    }
+}
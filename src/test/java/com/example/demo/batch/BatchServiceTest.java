@@ -0,0 +1,220 @@
+package com.example.demo.batch;
+
+import com.example.demo.cache.PageCache;
+import com.example.demo.config.BatchProperties;
+import com.example.demo.config.CacheProperties;
+import com.example.demo.config.ContentProperties;
+import com.example.demo.config.CrawlProperties;
+import com.example.demo.config.FetchProperties;
+import com.example.demo.config.IndexProperties;
+import com.example.demo.config.ShardProperties;
+import com.example.demo.counting.PartialCounts;
+import com.example.demo.crawl.ShardAssignment;
+import com.example.demo.index.NGramIndex;
+import com.example.demo.metrics.CrawlMetrics;
+import com.example.demo.model.BatchStatus;
+import com.example.demo.model.NGramQuery;
+import com.example.demo.model.SeedResult;
+import com.example.demo.service.ContentExtractor;
+import com.example.demo.service.NGramEngine;
+import com.example.demo.service.PageFetcher;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchServiceTest {
+
+    private static final Map<String, String> PAGES = Map.of(
+            "/alfa", "<p>Primeira página sobre economia</p><p><a href=\"/comum\">comum</a></p>",
+            "/beta", "<p>Segunda página sobre economia</p><p><a href=\"/comum\">comum</a></p>",
+            "/comum", "<p>Página compartilhada</p>");
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private ExecutorService crawlExecutor;
+    private ExecutorService batchExecutor;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+            byte[] body = ("<html><body>" + PAGES.get(path) + "</body></html>").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        crawlExecutor = Executors.newFixedThreadPool(4);
+        batchExecutor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void stopServer() {
+        batchExecutor.shutdownNow();
+        crawlExecutor.shutdownNow();
+        server.stop(0);
+    }
+
+    @Test
+    void countsPagesSharedBySeedsOnce() throws Exception {
+        BatchService service = service(new BatchProperties());
+
+        BatchJob job = service.submit(List.of(query("/alfa"), query("/beta"), query("/alfa?utm_source=feed")));
+        BatchStatus status = awaitEnd(job);
+
+        assertEquals(BatchStatus.State.DONE, status.state());
+        assertEquals(2, status.seeds());
+        assertEquals(1, requests.get("/comum").get());
+        assertEquals(3, pagesCrawled(status));
+        assertTrue(status.corpus().get(1).contains(Map.entry("economia", 2)));
+        assertTrue(status.corpus().get(1).contains(Map.entry("compartilhada", 1)));
+        assertSame(job, service.find(job.id()));
+    }
+
+    @Test
+    void replaysCompletedSeedsToLateSubscribers() throws Exception {
+        BatchJob job = service(new BatchProperties()).submit(List.of(query("/alfa"), query("/beta")));
+        awaitEnd(job);
+
+        List<SeedResult> seeds = new ArrayList<>();
+        List<BatchStatus> ends = new ArrayList<>();
+        job.subscribe(new BatchJob.Listener() {
+            @Override
+            public void seedCompleted(SeedResult result, Map<Integer, List<Map.Entry<String, Integer>>> corpus) {
+                seeds.add(result);
+            }
+
+            @Override
+            public void finished(BatchStatus status) {
+                ends.add(status);
+            }
+        });
+
+        assertEquals(2, seeds.size());
+        assertEquals(1, ends.size());
+    }
+
+    @Test
+    void boundsKeptJobsAndDropsExpiredOnes() throws Exception {
+        BatchProperties properties = new BatchProperties();
+        properties.setMaxJobs(1);
+        BatchService service = service(properties);
+
+        BatchJob first = service.submit(List.of(query("/alfa")));
+        awaitEnd(first);
+        assertThrows(RejectedExecutionException.class, () -> service.submit(List.of(query("/beta"))));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(List.of()));
+
+        properties.setJobTtl(Duration.ZERO);
+        BatchJob second = service.submit(List.of(query("/beta")));
+        assertNull(service.find(first.id()));
+        assertSame(second, service.find(second.id()));
+    }
+
+    @Test
+    void shardsCrawlDisjointSeedsWhosePartialsMergeIntoTheWholeCorpus() throws Exception {
+        List<NGramQuery> seeds = new ArrayList<>();
+        for (String host : List.of("127.0.0.1", "127.0.0.2", "127.0.0.3", "127.0.0.4", "127.0.0.5", "localhost")) {
+            seeds.add(new NGramQuery("http://" + host + ":" + server.getAddress().getPort() + "/alfa", List.of(1, 2)));
+        }
+        BatchJob whole = service(new BatchProperties(), shard(0, 1)).submit(seeds);
+        int wholePages = pagesCrawled(awaitEnd(whole));
+
+        PartialCounts merged = null;
+        int shardSeeds = 0;
+        int shardPages = 0;
+        for (int index = 0; index < 3; index++) {
+            BatchJob job = service(new BatchProperties(), shard(index, 3)).submit(seeds);
+            BatchStatus status = awaitEnd(job);
+            assertEquals(BatchStatus.State.DONE, status.state());
+            shardSeeds += status.seeds();
+            shardPages += pagesCrawled(status);
+
+            byte[] bytes = job.partial().toByteArray();
+            PartialCounts partial = PartialCounts.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+            if (merged == null) {
+                merged = partial;
+            } else {
+                merged.merge(partial);
+            }
+        }
+
+        PartialCounts expected = whole.partial();
+        assertEquals(seeds.size(), shardSeeds);
+        assertEquals(wholePages, shardPages);
+        for (int order : List.of(1, 2)) {
+            assertEquals(0, merged.errorBound(order));
+            assertEquals(expected.distinct(order), merged.distinct(order));
+            assertEquals(new HashSet<>(expected.top(order, 100)), new HashSet<>(merged.top(order, 100)));
+        }
+        assertTrue(merged.top(1, 100).contains(Map.entry("economia", seeds.size())));
+    }
+
+    private static ShardProperties shard(int index, int count) {
+        ShardProperties properties = new ShardProperties();
+        properties.setIndex(index);
+        properties.setCount(count);
+        return properties;
+    }
+
+    private static int pagesCrawled(BatchStatus status) {
+        return status.results().stream().mapToInt(result -> result.report().pagesCrawled()).sum();
+    }
+
+    private BatchStatus awaitEnd(BatchJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        BatchStatus status = job.status();
+        while (status.state() == BatchStatus.State.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = job.status();
+        }
+        return status;
+    }
+
+    private NGramQuery query(String path) {
+        return new NGramQuery(baseUrl + path, List.of(1, 2));
+    }
+
+    private BatchService service(BatchProperties properties) throws IOException {
+        return service(properties, new ShardProperties());
+    }
+
+    private BatchService service(BatchProperties properties, ShardProperties shardProperties) throws IOException {
+        FetchProperties fetchProperties = new FetchProperties();
+        fetchProperties.setMinRequestInterval(Duration.ZERO);
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.setEnabled(false);
+        CrawlMetrics metrics = new CrawlMetrics(new SimpleMeterRegistry());
+        PageFetcher fetcher = new PageFetcher(fetchProperties, new ContentExtractor(new ContentProperties()), metrics);
+        NGramEngine engine = new NGramEngine(new PageCache(fetcher, cacheProperties), crawlExecutor,
+                new CrawlProperties(), new NGramIndex(new IndexProperties()), metrics);
+        return new BatchService(engine, batchExecutor, properties, new ShardAssignment(shardProperties));
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.CacheProperties;
+import com.example.demo.config.ContentProperties;
+import com.example.demo.config.FetchProperties;
+import com.example.demo.metrics.CrawlMetrics;
+import com.example.demo.service.ContentExtractor;
+import com.example.demo.service.PageContent;
+import com.example.demo.service.PageFetcher;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCacheTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final String REVALIDATED_ETAG = "\"v2\"";
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+
+    @TempDir
+    Path persistDirectory;
+
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (ETAG.equals(ifNoneMatch) || REVALIDATED_ETAG.equals(ifNoneMatch)) {
+                notModifiedResponses.incrementAndGet();
+                exchange.getResponseHeaders().add("ETag", REVALIDATED_ETAG);
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            fullResponses.incrementAndGet();
+            byte[] body = ("<html><body><p>Página " + exchange.getRequestURI().getPath()
+                    + "</p><a href=\"/outra#topo\">outra</a></body></html>").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void servesFreshEntriesWithoutFetching() throws Exception {
+        PageCache cache = cache(properties(Duration.ofMinutes(5)));
+
+        PageContent first = cache.get(baseUrl + "/noticia", FETCH_TIMEOUT);
+        PageContent second = cache.get(baseUrl + "/noticia#comentarios", FETCH_TIMEOUT);
+
+        assertEquals(1, fullResponses.get());
+        assertSame(first, second);
+        assertTrue(second.text().startsWith("Página /noticia"));
+        assertEquals(baseUrl + "/outra#topo", second.links().get(0));
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void revalidatesStaleEntriesWithEtag() throws Exception {
+        PageCache cache = cache(properties(Duration.ZERO));
+
+        cache.get(baseUrl + "/noticia", FETCH_TIMEOUT);
+        PageContent revalidated = cache.get(baseUrl + "/noticia", FETCH_TIMEOUT);
+
+        assertEquals(1, fullResponses.get());
+        assertEquals(1, notModifiedResponses.get());
+        assertTrue(revalidated.text().startsWith("Página /noticia"));
+        assertEquals(REVALIDATED_ETAG, revalidated.etag());
+        assertEquals(1, cache.stats().revalidations());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBeyondMaxSize() throws Exception {
+        CacheProperties properties = properties(Duration.ofMinutes(5));
+        properties.setMaxSize(DataSize.ofBytes(1000));
+        PageCache cache = cache(properties);
+
+        for (int page = 0; page < 5; page++) {
+            cache.get(baseUrl + "/noticia-" + page, FETCH_TIMEOUT);
+        }
+
+        CacheStats stats = cache.stats();
+        assertTrue(stats.evictions() > 0);
+        assertTrue(stats.sizeInBytes() <= 1000);
+        assertEquals(5 - stats.evictions(), stats.entries());
+    }
+
+    @Test
+    void reloadsPersistedEntriesAfterRestart() throws Exception {
+        CacheProperties properties = properties(Duration.ofMinutes(5));
+        properties.setPersistDirectory(persistDirectory.toString());
+        cache(properties).get(baseUrl + "/noticia", FETCH_TIMEOUT);
+
+        PageCache restarted = cache(properties);
+        PageContent content = restarted.get(baseUrl + "/noticia", FETCH_TIMEOUT);
+
+        assertEquals(1, fullResponses.get());
+        assertTrue(content.text().startsWith("Página /noticia"));
+        assertEquals(1, restarted.stats().diskLoads());
+        assertEquals(1, restarted.stats().hits());
+    }
+
+    @Test
+    void deletesTheFilesOfEvictedEntries() throws Exception {
+        CacheProperties properties = properties(Duration.ofMinutes(5));
+        properties.setMaxSize(DataSize.ofBytes(1000));
+        properties.setPersistDirectory(persistDirectory.toString());
+        PageCache cache = cache(properties);
+
+        for (int page = 0; page < 5; page++) {
+            cache.get(baseUrl + "/noticia-" + page, FETCH_TIMEOUT);
+        }
+
+        assertTrue(cache.stats().evictions() > 0);
+        assertEquals(cache.stats().entries(), persistedFiles().size());
+    }
+
+    @Test
+    void deletesUnreadablePersistedEntries() throws Exception {
+        CacheProperties properties = properties(Duration.ofMinutes(5));
+        properties.setPersistDirectory(persistDirectory.toString());
+        cache(properties).get(baseUrl + "/noticia", FETCH_TIMEOUT);
+        Files.write(persistedFiles().get(0), new byte[]{0, 0, 0, 2, 0});
+        server.stop(0);
+
+        PageCache restarted = cache(properties);
+
+        assertThrows(IOException.class, () -> restarted.get(baseUrl + "/noticia", FETCH_TIMEOUT));
+        assertEquals(0, restarted.stats().diskLoads());
+        assertTrue(persistedFiles().isEmpty());
+    }
+
+    private List<Path> persistedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(persistDirectory)) {
+            return files.toList();
+        }
+    }
+
+    private CacheProperties properties(Duration pageTtl) {
+        CacheProperties properties = new CacheProperties();
+        properties.setPageTtl(pageTtl);
+        return properties;
+    }
+
+    private PageCache cache(CacheProperties properties) throws IOException {
+        FetchProperties fetchProperties = new FetchProperties();
+        fetchProperties.setMinRequestInterval(Duration.ZERO);
+        PageFetcher fetcher = new PageFetcher(fetchProperties, new ContentExtractor(new ContentProperties()),
+                new CrawlMetrics(new SimpleMeterRegistry()));
+        return new PageCache(fetcher, properties);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.cache;
+
+import com.example.demo.config.CacheProperties;
+import com.example.demo.model.NGramQuery;
+import com.example.demo.model.NGramReport;
+import com.example.demo.service.NGramEngine;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+
+    private static final String URL = "https://www.example.com/noticias";
+
+    @Test
+    void servesRepeatedQueriesFromCache() {
+        CountingEngine engine = new CountingEngine();
+        ResultCache cache = new ResultCache(engine, properties(Duration.ofMinutes(5), 16));
+
+        CachedReport first = cache.get(new NGramQuery(URL, List.of(1)));
+        CachedReport second = cache.get(new NGramQuery(URL + "?utm_source=feed", List.of(1)));
+        CachedReport otherOrder = cache.get(new NGramQuery(URL, List.of(2)));
+
+        assertEquals(CachedReport.Source.MISS, first.source());
+        assertEquals(CachedReport.Source.HIT, second.source());
+        assertSame(first.report(), second.report());
+        assertEquals(CachedReport.Source.MISS, otherOrder.source());
+        assertEquals(2, engine.calls.get());
+    }
+
+    @Test
+    void recomputesExpiredAndEvictedResults() {
+        CountingEngine engine = new CountingEngine();
+        ResultCache expiring = new ResultCache(engine, properties(Duration.ZERO, 16));
+        expiring.get(new NGramQuery(URL, List.of(1)));
+        assertEquals(CachedReport.Source.MISS, expiring.get(new NGramQuery(URL, List.of(1))).source());
+
+        ResultCache small = new ResultCache(engine, properties(Duration.ofMinutes(5), 1));
+        small.get(new NGramQuery(URL, List.of(1)));
+        small.get(new NGramQuery(URL, List.of(2)));
+        assertEquals(CachedReport.Source.MISS, small.get(new NGramQuery(URL, List.of(1))).source());
+        assertEquals(1, small.size());
+        assertEquals(5, engine.calls.get());
+    }
+
+    @Test
+    void coalescesConcurrentIdenticalQueries() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountingEngine engine = new CountingEngine(release);
+        ResultCache cache = new ResultCache(engine, properties(Duration.ofMinutes(5), 16));
+        int clients = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<CachedReport>> results = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> cache.get(new NGramQuery(URL, List.of(1, 2)))));
+            }
+            assertTrue(engine.started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            release.countDown();
+
+            int misses = 0;
+            for (Future<CachedReport> result : results) {
+                CachedReport report = result.get(5, TimeUnit.SECONDS);
+                if (report.source() == CachedReport.Source.MISS) misses++;
+                assertEquals(7, report.report().pagesCrawled());
+            }
+            assertEquals(1, misses);
+            assertEquals(1, engine.calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        CountingEngine engine = new CountingEngine();
+        engine.failure = new IllegalStateException("crawl failed");
+        ResultCache cache = new ResultCache(engine, properties(Duration.ofMinutes(5), 16));
+
+        assertThrows(IllegalStateException.class, () -> cache.get(new NGramQuery(URL, List.of(1))));
+        engine.failure = null;
+        assertEquals(CachedReport.Source.MISS, cache.get(new NGramQuery(URL, List.of(1))).source());
+        assertEquals(2, engine.calls.get());
+    }
+
+    private static CacheProperties properties(Duration resultTtl, int maxResults) {
+        CacheProperties properties = new CacheProperties();
+        properties.setResultTtl(resultTtl);
+        properties.setMaxResults(maxResults);
+        return properties;
+    }
+
+    private static final class CountingEngine extends NGramEngine {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private volatile RuntimeException failure;
+
+        private CountingEngine() {
+            this(new CountDownLatch(0));
+        }
+
+        private CountingEngine(CountDownLatch release) {
+            super(null, null, null, null, null);
+            this.release = release;
+        }
+
+        @Override
+        public NGramReport extract(NGramQuery query) {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) throw failure;
+
+            return new NGramReport(query.url(), 7, Map.of(), query.approximate(), Map.of(), false);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.corpus;
+
+import com.example.demo.config.ContentProperties;
+import com.example.demo.config.CorpusProperties;
+import com.example.demo.counting.NGramCounts;
+import com.example.demo.model.CorpusReport;
+import com.example.demo.service.ContentExtractor;
+import com.example.demo.service.TextTokenizer;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorpusServiceTest {
+
+    private static final List<Integer> ORDERS = List.of(1, 2);
+    private static final String ARTICLE = "<html><head><meta charset=\"utf-8\"></head>"
+            + "<body><p>Reforma tributária avança na Câmara dos Deputados</p></body></html>";
+    private static final String NOTE = "Reforma tributária volta ao Senado na próxima semana";
+
+    @TempDir
+    Path corpus;
+
+    private CorpusService service;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    void countsFilesAndWarcRecordsLikeTheCrawler() throws IOException {
+        String fixture = fixture("noticia-media.html");
+        Files.writeString(corpus.resolve("noticia.html"), fixture);
+        Files.createDirectories(corpus.resolve("notas"));
+        Files.writeString(corpus.resolve("notas/nota.txt"), NOTE);
+        byte[] warc = warc();
+        Files.write(corpus.resolve("arquivo.warc"), warc);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(corpus.resolve("arquivo.warc.gz")))) {
+            out.write(warc);
+        }
+        Files.writeString(corpus.resolve("ignorado.json"), "{\"reforma\": 1}");
+
+        CorpusReport report = service(new CorpusProperties()).analyze(corpus, ORDERS, false);
+
+        ContentExtractor extractor = new ContentExtractor(new ContentProperties());
+        NGramCounts expected = new NGramCounts(ORDERS);
+        TextTokenizer.tokenize(extractor.text(Jsoup.parse(fixture)), expected);
+        TextTokenizer.tokenize(NOTE, expected);
+        for (int copy = 0; copy < 2; copy++) {
+            TextTokenizer.tokenize(extractor.text(Jsoup.parse(ARTICLE)), expected);
+            TextTokenizer.tokenize(NOTE, expected);
+        }
+        assertEquals(6, report.documents());
+        assertEquals(6, report.skipped());
+        for (int order : ORDERS) {
+            assertEquals(expected.top(order, 20).stream().map(Map.Entry::getValue).toList(),
+                    report.ngrams().get(order).stream().map(Map.Entry::getValue).toList());
+        }
+        assertEquals(5, expected.count(2, "reforma tributária"));
+        assertTrue(report.ngrams().get(2).contains(Map.entry("reforma tributária", 5)));
+    }
+
+    @Test
+    void cutsLongBlocksAndSkipsNonTextOnesAlikeInBothArchiveFormats() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        record(out, "resource", "https://exemplo.com.br/foto.png", "image/png", "x".repeat(10_000));
+        record(out, "response", "https://exemplo.com.br/longa", "application/http; msgtype=response",
+                "HTTP/1.1 200 OK\r\nContent-Type: text/html; charset=UTF-8\r\n\r\n<html><body><p>"
+                        + "fim ".repeat(5_000) + "</p></body></html>");
+        Files.createDirectories(corpus.resolve("mapeado"));
+        Files.write(corpus.resolve("mapeado/arquivo.warc"), out.toByteArray());
+        Path compressed = Files.createDirectories(corpus.resolve("comprimido")).resolve("arquivo.warc.gz");
+        try (OutputStream gz = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            gz.write(out.toByteArray());
+        }
+        CorpusProperties properties = new CorpusProperties();
+        properties.setMaxBodySize(DataSize.ofKilobytes(1));
+
+        CorpusReport mapped = service(properties).analyze(corpus.resolve("mapeado"), ORDERS, false);
+        CorpusReport streamed = service(properties).analyze(corpus.resolve("comprimido"), ORDERS, false);
+
+        for (CorpusReport report : List.of(mapped, streamed)) {
+            assertEquals(1, report.documents());
+            assertEquals(1, report.skipped());
+            assertTrue(report.bytes() < 1024);
+        }
+        int words = mapped.ngrams().get(1).get(0).getValue();
+        assertTrue(words > 100 && words < 256);
+        assertEquals(mapped.ngrams(), streamed.ngrams());
+    }
+
+    @Test
+    void onlyResolvesPathsInsideTheRoot() throws IOException {
+        Files.createDirectories(corpus.resolve("dentro"));
+        CorpusProperties properties = new CorpusProperties();
+        assertThrows(IllegalStateException.class, () -> service(properties).resolve("dentro"));
+
+        properties.setRoot(corpus.toString());
+        assertEquals(corpus.toRealPath().resolve("dentro"), service.resolve("dentro"));
+        assertThrows(IllegalArgumentException.class, () -> service.resolve("../"));
+        assertThrows(IllegalArgumentException.class, () -> service.resolve("inexistente"));
+    }
+
+    private CorpusService service(CorpusProperties properties) {
+        properties.setParallelism(2);
+        if (service != null) service.shutdown();
+        service = new CorpusService(properties, new ContentExtractor(new ContentProperties()));
+        return service;
+    }
+
+    /**
+     * An archive with a warcinfo record, a request, an HTML response, a text resource and a 404 response.
+     */
+    private static byte[] warc() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        record(out, "warcinfo", null, "application/warc-fields", "software: teste\r\n");
+        record(out, "request", "https://exemplo.com.br/", "application/http; msgtype=request",
+                "GET / HTTP/1.1\r\nHost: exemplo.com.br\r\n\r\n");
+        record(out, "response", "https://exemplo.com.br/", "application/http; msgtype=response",
+                "HTTP/1.1 200 OK\r\nContent-Type: text/html; charset=UTF-8\r\n\r\n" + ARTICLE);
+        record(out, "resource", "https://exemplo.com.br/nota.txt", "text/plain; charset=UTF-8", NOTE);
+        record(out, "response", "https://exemplo.com.br/sumiu", "application/http; msgtype=response",
+                "HTTP/1.1 404 Not Found\r\nContent-Type: text/html\r\n\r\n<p>Página não encontrada</p>");
+        return out.toByteArray();
+    }
+
+    private static void record(ByteArrayOutputStream out, String type, String uri, String contentType, String block)
+            throws IOException {
+        byte[] content = block.getBytes(StandardCharsets.UTF_8);
+        StringBuilder header = new StringBuilder("WARC/1.0\r\nWARC-Type: ").append(type).append("\r\n");
+        if (uri != null) header.append("WARC-Target-URI: ").append(uri).append("\r\n");
+        header.append("Content-Type: ").append(contentType).append("\r\n")
+                .append("Content-Length: ").append(content.length).append("\r\n\r\n");
+        out.write(header.toString().getBytes(StandardCharsets.UTF_8));
+        out.write(content);
+        out.write("\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fixture(String name) throws IOException {
+        try (InputStream in = CorpusServiceTest.class.getResourceAsStream("/fixtures/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
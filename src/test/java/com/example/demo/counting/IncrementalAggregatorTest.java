@@ -0,0 +1,81 @@
+package com.example.demo.counting;
+
+import com.example.demo.service.TextTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalAggregatorTest {
+
+    private static final List<Integer> ORDERS = List.of(1, 2, 3);
+    private static final String[] WORDS = {
+            "banco", "central", "taxa", "juros", "mercado", "inflação", "governo", "reforma", "tributária",
+            "câmara", "senado", "votação", "economia", "crescimento", "emprego", "salário", "mínimo", "dólar"
+    };
+
+    @Test
+    void tracksTopOfGrowingCounts() {
+        Random random = new Random(42);
+        int[] counts = new int[500];
+        IncrementalTopK top = new IncrementalTopK(10);
+
+        for (int step = 0; step < 20_000; step++) {
+            int key = 1 + (int) Math.abs(random.nextGaussian() * 60) % (counts.length - 1);
+            counts[key] += 1 + random.nextInt(3);
+            top.update(key, counts[key]);
+
+            if (step % 500 == 0) {
+                long[] keys = new long[10];
+                int[] topCounts = new int[10];
+                int size = top.copyDescending(keys, topCounts);
+                int[] expected = Arrays.stream(counts).map(count -> -count).sorted().limit(size).map(count -> -count).toArray();
+                assertArrayEquals(expected, Arrays.copyOf(topCounts, size));
+                for (int i = 0; i < size; i++) {
+                    assertEquals(counts[(int) keys[i]], topCounts[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void snapshotsMatchFullCountsAfterEveryPage() {
+        Random random = new Random(7);
+        IncrementalAggregator incremental = new IncrementalAggregator(ORDERS, 20);
+        NGramCounts totals = new NGramCounts(ORDERS);
+
+        for (int page = 0; page < 50; page++) {
+            NGramCounts pageCounts = count(randomPage(random));
+            incremental.add(pageCounts);
+            totals.merge(pageCounts);
+
+            for (int order : ORDERS) {
+                List<Map.Entry<String, Integer>> snapshot = incremental.top(order, 20);
+                List<Map.Entry<String, Integer>> expected = totals.top(order, 20);
+                assertEquals(expected.stream().map(Map.Entry::getValue).toList(),
+                        snapshot.stream().map(Map.Entry::getValue).toList());
+                for (Map.Entry<String, Integer> entry : snapshot) {
+                    assertEquals(totals.count(order, entry.getKey()), (int) entry.getValue());
+                }
+            }
+        }
+    }
+
+    private static String randomPage(Random random) {
+        StringBuilder page = new StringBuilder();
+        for (int word = 0; word < 200; word++) {
+            page.append(WORDS[(int) Math.min(WORDS.length - 1, Math.abs(random.nextGaussian()) * 5)]).append(' ');
+        }
+        return page.toString();
+    }
+
+    private static NGramCounts count(String text) {
+        NGramCounts counts = new NGramCounts(ORDERS);
+        TextTokenizer.tokenize(text, counts);
+        return counts;
+    }
+}
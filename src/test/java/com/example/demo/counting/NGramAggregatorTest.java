@@ -0,0 +1,90 @@
+package com.example.demo.counting;
+
+import com.example.demo.service.TextTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NGramAggregatorTest {
+
+    private static final List<Integer> ORDERS = List.of(1, 2, 3);
+    private static final List<String> PAGES = List.of(
+            "Banco Central mantém taxa de juros básica",
+            "Mercado financeiro reage à taxa de juros do Banco Central",
+            "Inflação de serviços preocupa o Banco Central"
+    );
+
+    @Test
+    void mergesCountsFromDifferentDictionaries() {
+        NGramCounts first = count(PAGES.get(0));
+        NGramCounts second = count(PAGES.get(1));
+
+        NGramCounts merged = new NGramCounts(ORDERS);
+        merged.merge(first);
+        merged.merge(second);
+
+        assertEquals(2, merged.count(2, "banco central"));
+        assertEquals(2, merged.count(1, "taxa"));
+        assertEquals(1, merged.count(3, "banco central mantém"));
+        assertEquals(1, merged.count(2, "mercado financeiro"));
+    }
+
+    @Test
+    void losesNoUpdatesUnderConcurrentPages() throws Exception {
+        int threads = 16;
+        int pagesPerThread = 500;
+        NGramAggregator aggregator = new NGramAggregator(ORDERS, 4);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int offset = thread;
+                results.add(workers.submit(() -> {
+                    start.await();
+                    for (int page = 0; page < pagesPerThread; page++) {
+                        aggregator.add(count(PAGES.get((offset + page) % PAGES.size())));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        NGramCounts expected = new NGramCounts(ORDERS);
+        for (int thread = 0; thread < threads; thread++) {
+            for (int page = 0; page < pagesPerThread; page++) {
+                TextTokenizer.tokenize(PAGES.get((thread + page) % PAGES.size()), expected);
+            }
+        }
+
+        NGramCounts result = aggregator.result();
+        for (int order : ORDERS) {
+            assertEquals(expected.distinct(order), result.distinct(order));
+            for (Map.Entry<String, Integer> nGram : expected.top(order, Integer.MAX_VALUE)) {
+                assertEquals((int) nGram.getValue(), result.count(order, nGram.getKey()), nGram.getKey());
+            }
+        }
+        assertEquals(threads * pagesPerThread, result.count(2, "banco central"));
+    }
+
+    private static NGramCounts count(String text) {
+        NGramCounts counts = new NGramCounts(ORDERS);
+        TextTokenizer.tokenize(text, counts);
+        return counts;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.counting;
+
+import com.example.demo.service.TextTokenizer;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NGramCountsTest {
+
+    private static final List<Integer> ORDERS = List.of(1, 2, 3);
+
+    @Test
+    void matchesStringKeyedCountsOnFixturePage() throws IOException {
+        String text = fixtureText("noticia-media.html");
+        NGramCounts counts = new NGramCounts(ORDERS);
+        TextTokenizer.tokenize(text, counts);
+
+        for (int order : ORDERS) {
+            Map<String, Integer> expected = stringKeyedCounts(text, order);
+
+            assertEquals(expected.size(), counts.distinct(order));
+            expected.forEach((nGram, count) -> assertEquals((int) count, counts.count(order, nGram), nGram));
+
+            List<Map.Entry<String, Integer>> top = counts.top(order, 20);
+            int maxCount = expected.values().stream().max(Integer::compare).orElseThrow();
+            assertEquals(maxCount, (int) top.get(0).getValue());
+            for (int i = 1; i < top.size(); i++) {
+                assertTrue(top.get(i - 1).getValue() >= top.get(i).getValue());
+            }
+        }
+    }
+
+    @Test
+    void windowsDoNotSpanTexts() {
+        NGramCounts counts = new NGramCounts(List.of(2));
+        TextTokenizer.tokenize("banco central", counts);
+        TextTokenizer.tokenize("mercado financeiro", counts);
+
+        assertEquals(2, counts.distinct(2));
+        assertEquals(0, counts.count(2, "central mercado"));
+    }
+
+    @Test
+    void tableGrowsWithoutLosingCounts() {
+        LongIntHashMap table = new LongIntHashMap();
+        for (long key = 1; key <= 100_000; key++) {
+            table.add(key * 7919, (int) (key % 5) + 1);
+        }
+        table.add(7919, 10);
+
+        assertEquals(100_000, table.size());
+        assertEquals(12, table.get(7919));
+        assertEquals(5, table.get(4 * 7919));
+        assertEquals(0, table.get(3));
+    }
+
+    @Test
+    void dictionaryStopsAssigningIdsWhenFull() {
+        TokenDictionary dictionary = new TokenDictionary(2);
+
+        assertEquals(1, dictionary.idOf("banco".toCharArray(), 5));
+        assertEquals(2, dictionary.idOf("central".toCharArray(), 7));
+        assertEquals(1, dictionary.idOf("banco".toCharArray(), 5));
+        assertEquals(TokenDictionary.NO_ID, dictionary.idOf("mercado".toCharArray(), 7));
+        assertEquals("central", dictionary.term(2));
+    }
+
+    static String fixtureText(String fixture) throws IOException {
+        try (InputStream html = NGramCountsTest.class.getResourceAsStream("/fixtures/" + fixture)) {
+            return Jsoup.parse(html, StandardCharsets.UTF_8.name(), "https://exemplo.com.br/").text();
+        }
+    }
+
+    private static Map<String, Integer> stringKeyedCounts(String text, int order) {
+        List<String> run = new ArrayList<>();
+        Map<String, Integer> counts = new HashMap<>();
+        TextTokenizer.tokenize(text, (chars, length, term) -> {
+            if (!term) {
+                run.clear();
+                return;
+            }
+            run.add(new String(chars, 0, length));
+            if (run.size() < order) return;
+
+            StringJoiner nGram = new StringJoiner(" ");
+            run.subList(run.size() - order, run.size()).forEach(nGram::add);
+            counts.merge(nGram.toString(), 1, Integer::sum);
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.counting;
+
+import com.example.demo.service.TextTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartialCountsTest {
+
+    private static final List<Integer> ORDERS = List.of(1, 2, 3);
+
+    @Test
+    void exactPartialsRoundTripAndMergeIntoTheSums() throws IOException {
+        NGramCounts first = new NGramCounts(ORDERS);
+        TextTokenizer.tokenize("Banco Central eleva juros; banco central prevê inflação menor", first);
+        NGramCounts second = new NGramCounts(ORDERS);
+        TextTokenizer.tokenize("Juros altos: banco central mantém inflação sob controle", second);
+        NGramCounts expected = new NGramCounts(ORDERS);
+        expected.merge(first);
+        expected.merge(second);
+
+        PartialCounts merged = roundTrip(PartialCounts.of(first));
+        merged.merge(roundTrip(PartialCounts.of(second)));
+
+        assertEquals(0, merged.capacity());
+        for (int order : ORDERS) {
+            assertEquals(0, merged.errorBound(order));
+            assertEquals(expected.distinct(order), merged.distinct(order));
+            assertEquals(new HashSet<>(expected.top(order, 100)), new HashSet<>(merged.top(order, 100)));
+        }
+        assertEquals(Map.entry("banco central", 3), merged.top(2, 1).get(0));
+    }
+
+    @Test
+    void clampsCountsPastIntegerRangeInTheTopList() throws IOException {
+        PartialCounts partial = new PartialCounts(List.of(1), 0);
+        partial.add(1, "juros", Integer.MAX_VALUE, 0);
+        partial.merge(roundTrip(partial));
+
+        assertEquals(Map.entry("juros", Integer.MAX_VALUE), partial.top(1, 1).get(0));
+    }
+
+    @Test
+    void mergedSummariesKeepUpperBoundsWithinTheErrorBound() throws IOException {
+        Random random = new Random(5);
+        List<Integer> orders = List.of(1);
+        NGramCounts exact = new NGramCounts(orders);
+        PartialCounts merged = null;
+
+        for (int shard = 0; shard < 4; shard++) {
+            HeavyHittersAggregator summary = new HeavyHittersAggregator(orders, 50);
+            for (int page = 0; page < 200; page++) {
+                StringBuilder text = new StringBuilder();
+                for (int word = 0; word < 50; word++) {
+                    text.append(random.nextInt(10) < 3 ? word("destaque", random.nextInt(5))
+                            : word("palavra", random.nextInt(5_000))).append(' ');
+                }
+                NGramCounts pageCounts = new NGramCounts(orders);
+                TextTokenizer.tokenize(text.toString(), pageCounts);
+                exact.merge(pageCounts);
+                summary.add(pageCounts);
+            }
+
+            PartialCounts partial = roundTrip(summary.partial());
+            if (merged == null) {
+                merged = partial;
+            } else {
+                merged.merge(partial);
+            }
+        }
+
+        long errorBound = merged.errorBound(1);
+        Map<String, Integer> reported = new HashMap<>();
+        merged.top(1, 100).forEach(entry -> reported.put(entry.getKey(), entry.getValue()));
+
+        assertEquals(50, merged.capacity());
+        assertEquals(50, reported.size());
+        assertTrue(errorBound > 0);
+        reported.forEach((term, count) -> {
+            int truth = exact.count(1, term);
+            assertTrue(count >= truth, term);
+            assertTrue(count - truth <= errorBound, term);
+        });
+        for (Map.Entry<String, Integer> heavy : exact.top(1, 5)) {
+            assertTrue(heavy.getValue() > errorBound);
+            assertTrue(reported.containsKey(heavy.getKey()), heavy.getKey());
+        }
+    }
+
+    @Test
+    void rejectsOtherStreamsAndOtherOrders() {
+        PartialCounts partial = new PartialCounts(List.of(1), 0);
+        partial.add(1, "economia", 3, 0);
+        byte[] bytes = partial.toByteArray();
+
+        assertThrows(IOException.class, () -> read("<html></html>".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IOException.class, () -> read(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(IllegalArgumentException.class, () -> partial.merge(new PartialCounts(List.of(1, 2), 0)));
+    }
+
+    private static String word(String prefix, int number) {
+        StringBuilder word = new StringBuilder(prefix);
+        do {
+            word.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return word.toString();
+    }
+
+    private static PartialCounts roundTrip(PartialCounts partial) throws IOException {
+        return read(partial.toByteArray());
+    }
+
+    private static PartialCounts read(byte[] bytes) throws IOException {
+        return PartialCounts.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+}
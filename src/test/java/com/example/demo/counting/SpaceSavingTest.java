@@ -0,0 +1,75 @@
+package com.example.demo.counting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void findsHeavyHittersWithinErrorBound() {
+        Random random = new Random(7);
+        Map<Long, Long> exact = new HashMap<>();
+        SpaceSaving summary = new SpaceSaving(200);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(10) < 3 ? 1 + random.nextInt(5) : 100 + random.nextInt(50_000);
+            exact.merge(key, 1L, Long::sum);
+            summary.offer(key, 1, () -> Long.toString(key));
+        }
+
+        Map<String, Long> reported = new HashMap<>();
+        summary.forEach((label, count, error) -> reported.put(label, count));
+        long errorBound = summary.errorBound();
+
+        assertEquals(200, summary.size());
+        assertTrue(errorBound <= summary.total() / 200);
+        for (long heavy = 1; heavy <= 5; heavy++) {
+            long estimate = reported.get(Long.toString(heavy));
+            assertTrue(estimate >= exact.get(heavy));
+            assertTrue(estimate - exact.get(heavy) <= errorBound);
+        }
+    }
+
+    @Test
+    void topKHeapReturnsHighestCountsDescending() {
+        TopKHeap heap = new TopKHeap(3);
+        long[] counts = {5, 1, 9, 7, 3, 9, 2};
+        for (int key = 0; key < counts.length; key++) {
+            heap.offer(key + 1, counts[key]);
+        }
+
+        long[] topKeys = new long[3];
+        long[] topCounts = new long[3];
+        assertEquals(3, heap.drainDescending(topKeys, topCounts));
+        assertEquals(9, topCounts[0]);
+        assertEquals(9, topCounts[1]);
+        assertEquals(7, topCounts[2]);
+        assertEquals(4, topKeys[2]);
+    }
+
+    @Test
+    void hashMapRemovalKeepsOtherKeysReachable() {
+        Random random = new Random(11);
+        Map<Long, Integer> expected = new HashMap<>();
+        LongIntHashMap table = new LongIntHashMap();
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = 1 + random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                table.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.getOrDefault(key, 0).intValue(), table.remove(key));
+                expected.remove(key);
+            }
+        }
+
+        assertEquals(expected.size(), table.size());
+        expected.forEach((key, value) -> assertEquals(value.intValue(), table.get(key)));
+    }
+}
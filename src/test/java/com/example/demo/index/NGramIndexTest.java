@@ -0,0 +1,159 @@
+package com.example.demo.index;
+
+import com.example.demo.config.IndexProperties;
+import com.example.demo.counting.NGramCounts;
+import com.example.demo.model.IndexReport;
+import com.example.demo.model.IndexedNGram;
+import com.example.demo.service.TextTokenizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NGramIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private NGramIndex index;
+
+    @AfterEach
+    void shutdown() {
+        if (index != null) index.shutdown();
+    }
+
+    @Test
+    void answersFromFlushedSegmentsAndFiltersBySite() throws Exception {
+        index = index(8);
+        add("https://news.example/a", "reforma tributária aprovada; reforma tributária promulgada");
+        add("https://news.example/b", "reforma tributária volta ao senado");
+        add("https://blog.example/c", "receita de bolo de cenoura");
+        assertTrue(top(new IndexQuery(2, null, null, null, null, IndexQuery.Scoring.COUNT, 5)).ngrams().isEmpty());
+
+        index.flush();
+        IndexReport all = top(new IndexQuery(2, null, null, null, null, IndexQuery.Scoring.COUNT, 5));
+        assertEquals(3, all.documents());
+        assertEquals(new IndexedNGram("reforma tributária", 3, 2, 3), all.ngrams().get(0));
+
+        IndexReport blog = top(new IndexQuery(1, "blog.example", null, null, null, IndexQuery.Scoring.COUNT, 5));
+        assertEquals(1, blog.documents());
+        assertEquals(List.of("bolo", "cenoura", "receita"), blog.ngrams().stream().map(IndexedNGram::nGram).toList());
+
+        IndexReport page = top(new IndexQuery(1, null, "https://news.example/b", null, null,
+                IndexQuery.Scoring.COUNT, 5));
+        assertEquals(1, page.documents());
+        assertEquals(4, page.ngrams().size());
+
+        IndexReport future = top(new IndexQuery(1, null, null, Instant.now().plusSeconds(3600), null,
+                IndexQuery.Scoring.COUNT, 5));
+        assertEquals(0, future.documents());
+    }
+
+    @Test
+    void tfIdfRanksTermsCommonToEveryPageLower() throws Exception {
+        index = index(8);
+        add("https://a.example/1", "notícias notícias eleição eleição");
+        add("https://a.example/2", "notícias futebol");
+        add("https://a.example/3", "notícias clima");
+        index.flush();
+
+        IndexReport report = top(new IndexQuery(1, null, "https://a.example/1", null, null,
+                IndexQuery.Scoring.TFIDF, 2));
+        assertEquals("eleição", report.ngrams().get(0).nGram());
+        assertEquals(2 * (Math.log(4.0 / 2) + 1), report.ngrams().get(0).score(), 1e-9);
+        assertEquals("notícias", report.ngrams().get(1).nGram());
+        assertEquals(2, report.ngrams().get(1).score(), 1e-9);
+    }
+
+    @Test
+    void recrawledPagesReplaceEarlierVersionsAndCompactionDropsThem() throws Exception {
+        index = index(8);
+        add("https://a.example/1", "primeira versão");
+        index.flush();
+        Thread.sleep(5);
+        add("https://a.example/1", "segunda versão");
+        add("https://a.example/2", "outra página");
+        index.flush();
+
+        IndexReport before = top(new IndexQuery(1, null, null, null, null, IndexQuery.Scoring.COUNT, 10));
+        assertEquals(2, before.liveDocuments());
+        assertFalse(terms(before).contains("primeira"));
+        assertEquals(3, index.stats().documents());
+
+        index.compact();
+        IndexStats stats = index.stats();
+        assertEquals(1, stats.segments());
+        assertEquals(2, stats.documents());
+        assertEquals(1, stats.compactions());
+        IndexReport after = top(new IndexQuery(1, null, null, null, null, IndexQuery.Scoring.COUNT, 10));
+        assertEquals(terms(before), terms(after));
+    }
+
+    @Test
+    void compactsOnceThereAreTooManySegmentsAndSurvivesARestart() throws Exception {
+        index = index(2);
+        for (int i = 0; i < 3; i++) {
+            add("https://a.example/" + i, "página número comum");
+            index.flush();
+        }
+        assertEquals(1, index.stats().compactions());
+        assertTrue(index.stats().segments() <= 2);
+        assertEquals(index.stats().segments(), segmentFiles());
+        index.shutdown();
+        add("https://a.example/late", "página tardia");
+
+        index = index(2);
+        IndexReport report = top(new IndexQuery(1, null, null, null, null, IndexQuery.Scoring.COUNT, 10));
+        assertEquals(3, report.liveDocuments());
+        assertEquals(new IndexedNGram("comum", 3, 3, 3), report.ngrams().get(0));
+    }
+
+    @Test
+    void isDisabledWithoutADirectory() throws IOException {
+        NGramIndex disabled = new NGramIndex(new IndexProperties());
+        disabled.add("https://a.example/1", counts("ignorado"));
+        assertFalse(disabled.stats().enabled());
+        assertEquals(0, disabled.stats().bufferedDocuments());
+        assertThrows(IllegalStateException.class,
+                () -> disabled.top(new IndexQuery(1, null, null, null, null, IndexQuery.Scoring.COUNT, 10)));
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).count();
+        }
+    }
+
+    private NGramIndex index(int maxSegments) throws IOException {
+        IndexProperties properties = new IndexProperties();
+        properties.setDirectory(directory.toString());
+        properties.setMaxSegments(maxSegments);
+        return new NGramIndex(properties);
+    }
+
+    private void add(String url, String text) {
+        index.add(url, counts(text));
+    }
+
+    private IndexReport top(IndexQuery query) {
+        return index.top(query);
+    }
+
+    private static NGramCounts counts(String text) {
+        NGramCounts counts = new NGramCounts(List.of(1, 2, 3));
+        TextTokenizer.tokenize(text, counts);
+        return counts;
+    }
+
+    private static List<String> terms(IndexReport report) {
+        return report.ngrams().stream().map(IndexedNGram::nGram).sorted().toList();
+    }
+}
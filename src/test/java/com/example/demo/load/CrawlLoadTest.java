@@ -0,0 +1,139 @@
+package com.example.demo.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives {@code /unigrams}, {@code /bigrams} and {@code /trigrams} against a {@link SyntheticSite} and
+ * prints crawl throughput, request latency percentiles and peak heap. Caching is off, so every request
+ * crawls. Only runs with {@code -Dloadtest=true}; see the README for the other {@code loadtest.*}
+ * properties.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.security.user.name=load",
+        "spring.security.user.password=load",
+        "ngram.cache.enabled=false",
+        "ngram.cache.result-ttl=0s",
+        "ngram.fetch.min-request-interval=0ms",
+        "ngram.fetch.max-connections-per-host=64"
+})
+class CrawlLoadTest {
+
+    private static final List<String> ENDPOINTS = List.of("/unigrams", "/bigrams", "/trigrams");
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    void crawlsSyntheticSite() throws Exception {
+        SyntheticSite.Options options = SyntheticSite.Options.fromSystemProperties();
+        int requests = Integer.getInteger("loadtest.requests", 300);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 8);
+        int maxPages = Integer.getInteger("loadtest.maxPages", 20);
+        int maxDepth = Integer.getInteger("loadtest.maxDepth", 3);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String authorization = "Basic "
+                + Base64.getEncoder().encodeToString("load:load".getBytes(StandardCharsets.UTF_8));
+        long[] latencies = new long[requests];
+        int errors = 0;
+
+        try (SyntheticSite site = new SyntheticSite(options)) {
+            resetPeakHeap();
+            ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+            long start = System.nanoTime();
+            try {
+                List<Future<Integer>> statuses = new ArrayList<>(requests);
+                for (int i = 0; i < requests; i++) {
+                    int request = i;
+                    String uri = "http://127.0.0.1:" + port + ENDPOINTS.get(i % ENDPOINTS.size())
+                            + "?url=" + URLEncoder.encode(site.url(i * 37), StandardCharsets.UTF_8)
+                            + "&maxPages=" + maxPages + "&maxDepth=" + maxDepth;
+                    statuses.add(workers.submit(() -> {
+                        HttpRequest get = HttpRequest.newBuilder(URI.create(uri))
+                                .header("Authorization", authorization)
+                                .timeout(Duration.ofMinutes(2))
+                                .GET()
+                                .build();
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(get, HttpResponse.BodyHandlers.discarding());
+                        latencies[request] = System.nanoTime() - sent;
+                        return response.statusCode();
+                    }));
+                }
+                for (Future<Integer> status : statuses) {
+                    if (status.get() != 200) errors++;
+                }
+            } finally {
+                workers.shutdownNow();
+                workers.awaitTermination(10, TimeUnit.SECONDS);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Arrays.sort(latencies);
+            System.out.printf(Locale.ROOT, "%nLoad test: %d requests at concurrency %d, %d pages/request at most, "
+                            + "site of %d pages (fan-out %d, %d bytes, %d ms latency, redirect every %d links)%n",
+                    requests, concurrency, maxPages, options.pages(), options.fanOut(), options.pageSize(),
+                    options.latencyMillis(), options.redirectEvery());
+            System.out.printf(Locale.ROOT,
+                    "  %.1f s, %.1f requests/s, %.1f pages/s (%d pages, %d redirects), %d errors%n",
+                    seconds, requests / seconds, site.pagesServed() / seconds, site.pagesServed(),
+                    site.redirectsServed(), errors);
+            System.out.printf(Locale.ROOT, "  latency ms: p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n",
+                    percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                    percentile(latencies, 100));
+            System.out.printf(Locale.ROOT, "  peak heap: %.1f MB%n%n", peakHeap() / (1024.0 * 1024.0));
+        }
+
+        assertEquals(0, errors);
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    /**
+     * The sum of the heap pools' peaks since {@link #resetPeakHeap()}; pools peak at different moments, so
+     * this bounds the real peak from above.
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+}
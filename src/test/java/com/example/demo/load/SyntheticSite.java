@@ -0,0 +1,153 @@
+package com.example.demo.load;
+
+import com.example.demo.service.TextTokenizer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jsoup.Jsoup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A generated website on a local {@link HttpServer}, so crawls can be measured without the network. Page
+ * {@code i} lives at {@code /page/i} and links to the next {@code fanOut} pages of a ring; every
+ * {@code redirectEvery}-th link goes through {@code /go/j}, which answers 302 to {@code /page/j}. Page text
+ * is drawn from the words of a fixture news page with a skewed distribution, so n-grams repeat the way they
+ * do on real pages, and is the same for a given page on every run.
+ */
+final class SyntheticSite implements AutoCloseable {
+
+    record Options(int pages, int fanOut, int pageSize, long latencyMillis, int redirectEvery) {
+
+        static Options fromSystemProperties() {
+            return new Options(
+                    Integer.getInteger("loadtest.pages", 1000),
+                    Integer.getInteger("loadtest.fanOut", 5),
+                    Integer.getInteger("loadtest.pageSize", 8192),
+                    Long.getLong("loadtest.latencyMs", 20),
+                    Integer.getInteger("loadtest.redirectEvery", 10));
+        }
+    }
+
+    private final Options options;
+    private final List<String> vocabulary;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicLong pagesServed = new AtomicLong();
+    private final AtomicLong redirectsServed = new AtomicLong();
+
+    SyntheticSite(Options options) throws IOException {
+        this.options = options;
+        this.vocabulary = vocabulary("resumo-do-dia.html");
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/page/", this::page);
+        server.createContext("/go/", this::redirect);
+        server.start();
+    }
+
+    String url(int page) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/page/" + Math.floorMod(page, options.pages());
+    }
+
+    long pagesServed() {
+        return pagesServed.get();
+    }
+
+    long redirectsServed() {
+        return redirectsServed.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void page(HttpExchange exchange) throws IOException {
+        int page = pageNumber(exchange);
+        delay();
+        byte[] body = html(page).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+            pagesServed.incrementAndGet();
+        } catch (IOException e) {
+            // the crawler gave up on this page
+        }
+    }
+
+    private void redirect(HttpExchange exchange) throws IOException {
+        int page = pageNumber(exchange);
+        delay();
+        exchange.getResponseHeaders().add("Location", "/page/" + page);
+        exchange.sendResponseHeaders(302, -1);
+        exchange.close();
+        redirectsServed.incrementAndGet();
+    }
+
+    private String html(int page) {
+        Random random = new Random(page);
+        StringBuilder html = new StringBuilder(options.pageSize() + 512)
+                .append("<html><head><title>Página ").append(page).append("</title></head><body><article>");
+        while (html.length() < options.pageSize()) {
+            html.append("<p>");
+            int words = 20 + random.nextInt(40);
+            for (int i = 0; i < words; i++) {
+                if (i > 0) html.append(' ');
+                html.append(vocabulary.get((int) (Math.pow(random.nextDouble(), 3) * vocabulary.size())));
+            }
+            html.append(".</p>");
+        }
+        html.append("</article><nav>");
+        for (int k = 1; k <= options.fanOut(); k++) {
+            int target = (page + k) % options.pages();
+            int link = page * options.fanOut() + k;
+            String path = options.redirectEvery() > 0 && link % options.redirectEvery() == 0 ? "/go/" : "/page/";
+            html.append("<a href=\"").append(path).append(target).append("\">página ").append(target).append("</a> ");
+        }
+        return html.append("</nav></body></html>").toString();
+    }
+
+    private void delay() {
+        if (options.latencyMillis() <= 0) return;
+
+        try {
+            Thread.sleep(options.latencyMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int pageNumber(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        return Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * The distinct terms of a fixture page, in order of first appearance.
+     */
+    private static List<String> vocabulary(String fixture) throws IOException {
+        String text;
+        try (InputStream html = SyntheticSite.class.getResourceAsStream("/fixtures/" + fixture)) {
+            text = Jsoup.parse(html, StandardCharsets.UTF_8.name(), "https://exemplo.com.br/").text();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        TextTokenizer.tokenize(text, (chars, length, term) -> {
+            if (term) terms.add(new String(chars, 0, length));
+        });
+        return new ArrayList<>(terms);
+    }
+}
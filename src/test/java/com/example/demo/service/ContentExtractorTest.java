@@ -0,0 +1,140 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ContentProperties;
+import com.example.demo.counting.NGramCounts;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentExtractorTest {
+
+    private static final List<String> BOILERPLATE = List.of("cookies", "newsletter", "Todos os direitos reservados",
+            "Mais lidas", "Leia também", "Compartilhe", "Publicidade", "Assine");
+
+    /**
+     * Token for token rather than character for character: unlike {@link Document#text()}, the extractor also
+     * separates a block from an inline element right after it ({@code <p>a</p><a>b</a>}).
+     */
+    @Test
+    void fullModeReadsTheSameTokensAsDocumentText() throws IOException {
+        ContentProperties properties = new ContentProperties();
+        properties.setMode(ContentProperties.Mode.FULL);
+        ContentExtractor extractor = new ContentExtractor(properties);
+
+        for (String fixture : TextTokenizerTest.FIXTURES) {
+            Document document = fixture(fixture);
+            List<String> expected = new ArrayList<>();
+            TextTokenizer.tokenize(document.text(), collector(expected));
+            List<String> tokens = new ArrayList<>();
+            TextTokenizer.tokenize(extractor.text(document), collector(tokens));
+
+            assertEquals(expected, tokens, fixture);
+        }
+        assertEquals("Notícias do Brasil link",
+                extractor.text(Jsoup.parse("<p>Notícias do Brasil</p><a href=\"/outra\">link</a>")));
+    }
+
+    @Test
+    void keepsTheArticleAndDropsNavigationBannersAndFooters() throws IOException {
+        ContentExtractor extractor = new ContentExtractor(new ContentProperties());
+
+        // matched by the <article> selector
+        String shortArticle = extractor.text(fixture("noticia-curta.html"));
+        assertTrue(shortArticle.startsWith("Chuvas fortes atingem o litoral paulista e deixam cidades em alerta"),
+                shortArticle);
+        assertTrue(shortArticle.endsWith("risco de deslizamentos e alagamentos em áreas de encosta."), shortArticle);
+
+        // no selector matches; the densest block of paragraphs is div.article-body
+        String mediumArticle = extractor.text(fixture("noticia-media.html"));
+        assertTrue(mediumArticle.startsWith("Banco Central mantém taxa de juros e sinaliza cautela com a inflação"),
+                mediumArticle);
+        assertTrue(mediumArticle.endsWith("as apostas sobre o futuro da taxa de juros no país."), mediumArticle);
+
+        for (String fixture : TextTokenizerTest.FIXTURES) {
+            Document document = fixture(fixture);
+            String text = extractor.text(document);
+
+            assertTrue(text.length() < document.text().length(), fixture);
+            for (String boilerplate : BOILERPLATE) {
+                assertFalse(text.contains(boilerplate), fixture + " keeps \"" + boilerplate + "\"");
+            }
+        }
+    }
+
+    @Test
+    void countsOnlyArticleNGrams() throws IOException {
+        Document document = fixture("noticia-media.html");
+        NGramCounts full = new NGramCounts(List.of(1, 2));
+        TextTokenizer.tokenize(document.text(), full);
+        NGramCounts main = new NGramCounts(List.of(1, 2));
+        new ContentExtractor(new ContentProperties()).tokenize(document, main);
+
+        assertTrue(full.count(1, "cookies") > 0);
+        assertEquals(0, main.count(1, "cookies"));
+        assertEquals(0, main.count(1, "facebook"));
+        // the page <title> is the only occurrence outside the article
+        assertEquals(full.count(2, "banco central") - 1, main.count(2, "banco central"));
+        assertEquals(full.count(2, "política monetária"), main.count(2, "política monetária"));
+    }
+
+    @Test
+    void tokenizeSeesTheSameTextAsText() throws IOException {
+        ContentExtractor extractor = new ContentExtractor(new ContentProperties());
+
+        for (String fixture : TextTokenizerTest.FIXTURES) {
+            Document document = fixture(fixture);
+            List<String> expected = new ArrayList<>();
+            TextTokenizer.tokenize(extractor.text(document), collector(expected));
+            List<String> tokens = new ArrayList<>();
+            extractor.tokenize(document, collector(tokens));
+
+            assertEquals(expected, tokens, fixture);
+        }
+    }
+
+    @Test
+    void leavesOutLinkListsInsideTheContent() {
+        Document document = Jsoup.parse("<article><p>" + "Reforma tributária avança no Congresso. ".repeat(8) + "</p>"
+                + "<ul><li><a href=\"/a\">Dólar sobe</a></li><li><a href=\"/b\">Bolsa cai</a></li></ul></article>");
+
+        String text = new ContentExtractor(new ContentProperties()).text(document);
+
+        assertTrue(text.startsWith("Reforma tributária"));
+        assertFalse(text.contains("Dólar"), text);
+    }
+
+    @Test
+    void stopsAtMaxTextLength() throws IOException {
+        ContentProperties properties = new ContentProperties();
+        properties.setMaxTextLength(100);
+        ContentExtractor extractor = new ContentExtractor(properties);
+        Document document = fixture("resumo-do-dia.html");
+
+        String text = extractor.text(document);
+        List<String> tokens = new ArrayList<>();
+        extractor.tokenize(document, collector(tokens));
+        List<String> expected = new ArrayList<>();
+        TextTokenizer.tokenize(text, collector(expected));
+
+        assertEquals(100, text.length());
+        assertTrue(tokens.size() <= expected.size() + 1, tokens + " vs " + expected);
+    }
+
+    private static Document fixture(String name) throws IOException {
+        try (InputStream html = ContentExtractorTest.class.getResourceAsStream("/fixtures/" + name)) {
+            return Jsoup.parse(html, StandardCharsets.UTF_8.name(), "https://exemplo.com.br/");
+        }
+    }
+
+    private static TextTokenizer.TokenSink collector(List<String> tokens) {
+        return (chars, length, term) -> tokens.add(new String(chars, 0, length));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.PageCache;
+import com.example.demo.config.CacheProperties;
+import com.example.demo.config.ContentProperties;
+import com.example.demo.config.CrawlProperties;
+import com.example.demo.config.FetchProperties;
+import com.example.demo.config.IndexProperties;
+import com.example.demo.crawl.CrawlBudget;
+import com.example.demo.index.NGramIndex;
+import com.example.demo.metrics.CrawlMetrics;
+import com.example.demo.model.NGramQuery;
+import com.example.demo.model.NGramReport;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NGramEngineTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private ExecutorService crawlExecutor;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        // /p0 links to /p1 and /slow1, /p1 to /p2 and /slow2, and so on; /slowN answers after 5 seconds.
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            int depth = Integer.parseInt(path.replaceAll("\\D", ""));
+            if (path.startsWith("/slow")) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = ("<html><body><p>Banco Central mantém taxa de juros</p>"
+                    + "<a href=\"/p" + (depth + 1) + "\">próxima</a>"
+                    + "<a href=\"/slow" + (depth + 1) + "\">lenta</a></body></html>").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException e) {
+                // the crawler gave up on this page
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        crawlExecutor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void stopServer() {
+        crawlExecutor.shutdownNow();
+        server.stop(0);
+    }
+
+    @Test
+    void stopsAtDepthLimit() {
+        NGramReport report = extract(new CrawlBudget(20, 2, Duration.ofMillis(200), Duration.ofSeconds(10)));
+
+        assertFalse(report.partial());
+        assertEquals(3, report.pagesCrawled());
+        assertEquals(3, (int) report.ngrams().get(2).get(0).getValue());
+        assertTrue(report.ngrams().get(2).contains(Map.entry("banco central", 3)));
+    }
+
+    @Test
+    void returnsPartialResultWhenDeadlinePasses() {
+        long start = System.nanoTime();
+        NGramReport report = extract(new CrawlBudget(20, 1, Duration.ofSeconds(10), Duration.ofMillis(500)));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(report.partial());
+        assertEquals(2, report.pagesCrawled());
+        assertTrue(elapsedMillis < 2000, "took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void skipsPagesSlowerThanFetchTimeout() {
+        long start = System.nanoTime();
+        NGramReport report = extract(new CrawlBudget(20, 1, Duration.ofMillis(300), Duration.ofSeconds(10)));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertFalse(report.partial());
+        assertEquals(2, report.pagesCrawled());
+        assertTrue(elapsedMillis < 3000, "took " + elapsedMillis + " ms");
+        assertEquals(Map.of("timeout", 1L), report.timings().skipped());
+        assertEquals(1.0, registry.get("ngram.pages.skipped").tag("reason", "timeout").counter().count());
+    }
+
+    @Test
+    void recordsTimingsAndMetricsOfEachCrawl() {
+        NGramReport report = extract(new CrawlBudget(2, 1, Duration.ofMillis(200), Duration.ofSeconds(10)));
+
+        assertEquals(2, report.pagesCrawled());
+        assertTrue(report.timings().tokens() > 0);
+        assertEquals(report.timings().tokens(), registry.get("ngram.tokens").counter().count());
+        assertEquals(2, registry.get("ngram.fetch").tag("host", "127.0.0.1").tag("outcome", "ok").timer().count());
+        assertEquals(2, registry.get("ngram.extract").timer().count());
+        assertEquals(1, registry.get("ngram.crawl").tag("partial", "false").timer().count());
+        assertEquals(report.ngrams().get(1).size(),
+                registry.get("ngram.crawl.distinct").tag("order", "1").summary().totalAmount());
+    }
+
+    private NGramReport extract(CrawlBudget budget) {
+        return engine().extract(new NGramQuery(baseUrl + "/p0", List.of(1, 2), false, budget));
+    }
+
+    private NGramEngine engine() {
+        FetchProperties fetchProperties = new FetchProperties();
+        fetchProperties.setMinRequestInterval(Duration.ZERO);
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.setEnabled(false);
+        try {
+            CrawlMetrics metrics = new CrawlMetrics(registry);
+            ContentExtractor contentExtractor = new ContentExtractor(new ContentProperties());
+            PageFetcher fetcher = new PageFetcher(fetchProperties, contentExtractor, metrics);
+            return new NGramEngine(new PageCache(fetcher, cacheProperties), crawlExecutor, new CrawlProperties(),
+                    new NGramIndex(new IndexProperties()), metrics);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ContentProperties;
+import com.example.demo.config.FetchProperties;
+import com.example.demo.metrics.CrawlMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageFetcherTest {
+
+    private static final String PAGE = "<html><body><p>Notícias do Brasil</p><a href=\"/outra\">link</a></body></html>";
+
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/plain", exchange -> respond(exchange, PAGE.getBytes(StandardCharsets.UTF_8), null));
+        server.createContext("/gzip", exchange -> {
+            if (exchange.getRequestHeaders().containsKey("If-None-Match")) {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.getResponseHeaders().add("ETag", "\"v2\"");
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            respond(exchange, gzip(PAGE), "gzip");
+        });
+        server.createContext("/large", exchange -> respond(exchange, ("<p>" + "palavra ".repeat(10_000) + "</p>").getBytes(StandardCharsets.UTF_8), null));
+        server.createContext("/redirect", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/plain");
+            exchange.sendResponseHeaders(301, -1);
+            exchange.close();
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            int active = activeRequests.incrementAndGet();
+            maxActiveRequests.accumulateAndGet(active, Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            activeRequests.decrementAndGet();
+            respond(exchange, PAGE.getBytes(StandardCharsets.UTF_8), null);
+        });
+        server.createContext("/trickle", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("<html><body><p>".getBytes(StandardCharsets.UTF_8));
+                for (int i = 0; i < 100; i++) {
+                    out.write('a');
+                    out.flush();
+                    Thread.sleep(50);
+                }
+            } catch (IOException | InterruptedException e) {
+                // The client gave up.
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void parsesPlainPageWithAbsoluteLinks() throws Exception {
+        FetchedPage page = fetcher(new FetchProperties()).fetch(baseUrl + "/plain");
+
+        assertEquals(200, page.status());
+        assertEquals("Notícias do Brasil link", page.text());
+        assertEquals(List.of(baseUrl + "/outra"), page.links());
+    }
+
+    @Test
+    void decompressesGzipBodies() throws Exception {
+        FetchedPage page = fetcher(new FetchProperties()).fetch(baseUrl + "/gzip");
+
+        assertEquals("Notícias do Brasil link", page.text());
+    }
+
+    @Test
+    void revalidatesWithoutDecodingBodilessResponses() throws Exception {
+        FetchedPage page = fetcher(new FetchProperties()).fetch(baseUrl + "/gzip", "\"v1\"", null,
+                Duration.ofSeconds(5));
+
+        assertTrue(page.isNotModified());
+        assertEquals("\"v2\"", page.etag());
+    }
+
+    @Test
+    void reportsFinalUrlAfterRedirect() throws Exception {
+        FetchedPage page = fetcher(new FetchProperties()).fetch(baseUrl + "/redirect");
+
+        assertEquals(baseUrl + "/plain", page.finalUrl());
+    }
+
+    @Test
+    void truncatesBodiesAboveMaxSize() throws Exception {
+        FetchProperties properties = new FetchProperties();
+        properties.setMaxBodySize(DataSize.ofBytes(1024));
+
+        FetchedPage page = fetcher(properties).fetch(baseUrl + "/large");
+
+        assertEquals(1024, page.bodySize());
+    }
+
+    @Test
+    void givesUpOnBodiesStillArrivingAtTheTimeout() {
+        PageFetcher fetcher = fetcher(new FetchProperties());
+
+        long start = System.nanoTime();
+        assertThrows(HttpTimeoutException.class,
+                () -> fetcher.fetch(baseUrl + "/trickle", null, null, Duration.ofMillis(300)));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+    }
+
+    @Test
+    void failsOnErrorStatus() {
+        PageFetcher fetcher = fetcher(new FetchProperties());
+
+        PageSkippedException e = assertThrows(PageSkippedException.class, () -> fetcher.fetch(baseUrl + "/missing"));
+        assertEquals("http-status", e.reason());
+    }
+
+    @Test
+    void limitsConcurrentRequestsPerHost() throws Exception {
+        FetchProperties properties = new FetchProperties();
+        properties.setMaxConnectionsPerHost(2);
+        PageFetcher fetcher = fetcher(properties);
+
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<FetchedPage>> pages = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                pages.add(clients.submit(() -> fetcher.fetch(baseUrl + "/slow")));
+            }
+            for (Future<FetchedPage> page : pages) {
+                assertEquals(200, page.get().status());
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        assertTrue(maxActiveRequests.get() <= 2, "max concurrent requests was " + maxActiveRequests.get());
+    }
+
+    private PageFetcher fetcher(FetchProperties properties) {
+        properties.setMinRequestInterval(Duration.ZERO);
+        return new PageFetcher(properties, new ContentExtractor(new ContentProperties()),
+                new CrawlMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body, String contentEncoding) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+        if (contentEncoding != null) {
+            exchange.getResponseHeaders().add("Content-Encoding", contentEncoding);
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
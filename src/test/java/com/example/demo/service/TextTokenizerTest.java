@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextTokenizerTest {
+
+    static final List<String> FIXTURES = List.of("noticia-curta.html", "noticia-media.html", "resumo-do-dia.html");
+
+    @Test
+    void matchesRegexPipelineOnFixtureCorpus() throws IOException {
+        for (String fixture : FIXTURES) {
+            String text = fixtureText(fixture);
+
+            assertEquals(RegexTokenizer.tokenize(text), tokenize(text), fixture);
+        }
+    }
+
+    @Test
+    void splitsCamelCaseAndLowerCases() {
+        assertEquals(List.of("assine*", "o", "diário*", "exemplo*", "i", "phone*", "play*", "station*"),
+                tokenize("Assine o DiárioExemplo iPhone PlayStation"));
+    }
+
+    @Test
+    void marksStopwordsShortWordsAndDigitsAsNonTerms() {
+        assertEquals(List.of("não", "também", "são", "ab", "2024", "r12", "notícias*"),
+                tokenize("Não, também SÃO ab 2024 R12 notícias"));
+    }
+
+    @Test
+    void keepsTokensSpanningFedChunks() {
+        List<String> tokens = new ArrayList<>();
+        TextTokenizer.Scanner scanner = new TextTokenizer.Scanner(collector(tokens));
+        scanner.feed("Banco Cen");
+        scanner.feed("tral mantém");
+        scanner.finish();
+
+        assertEquals(List.of("banco*", "central*", "mantém*"), tokens);
+    }
+
+    static String fixtureText(String fixture) throws IOException {
+        try (InputStream html = TextTokenizerTest.class.getResourceAsStream("/fixtures/" + fixture)) {
+            return Jsoup.parse(html, StandardCharsets.UTF_8.name(), "https://exemplo.com.br/").text();
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        TextTokenizer.tokenize(text, collector(tokens));
+        return tokens;
+    }
+
+    private static TextTokenizer.TokenSink collector(List<String> tokens) {
+        return (chars, length, term) -> tokens.add(new String(chars, 0, length) + (term ? "*" : ""));
+    }
+
+    /**
+     * The regex and Normalizer based tokenization that {@link TextTokenizer} replaced, kept as the reference
+     * its output must match. It is the engine's tokenization, not that of the original per-order extractors:
+     * those disagreed with each other on case, digits and stopwords, and the engine replaced them with one set of
+     * rules (lower-cased tokens, tokens with digits as non-terms, a single merged stopword list) that every
+     * order, the index and the corpus counts now rely on.
+     */
+    static final class RegexTokenizer {
+
+        private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+        private static final Pattern CAMEL_CASE = Pattern.compile("(\\p{Ll})(\\p{Lu})");
+        private static final Pattern DIGIT = Pattern.compile(".*\\p{Nd}.*");
+
+        static List<String> tokenize(String text) {
+            text = SEPARATORS.matcher(text).replaceAll(" ");
+            text = CAMEL_CASE.matcher(text).replaceAll("$1 $2");
+
+            List<String> tokens = new ArrayList<>();
+            for (String word : text.split(" ")) {
+                if (word.isEmpty()) continue;
+
+                String lowerCase = word.toLowerCase(Locale.ROOT);
+                String folded = Normalizer.normalize(lowerCase, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+                boolean term = lowerCase.length() >= 3
+                        && !DIGIT.matcher(lowerCase).matches()
+                        && !Stopwords.contains(folded);
+                tokens.add(lowerCase + (term ? "*" : ""));
+            }
+            return tokens;
+        }
+    }
+}